@@ -0,0 +1,74 @@
+package com.financetracker.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Minimal benchmark harness: warm-up iterations, then measured iterations,
+ * reporting time per iteration and per operation. Console output of the
+ * code under test is suppressed while it runs.
+ */
+public class Benchmark {
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private static final PrintStream REAL_OUT = System.out;
+    private static final PrintStream REAL_ERR = System.err;
+    private static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) { }
+
+        @Override
+        public void write(byte[] b, int off, int len) { }
+    });
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+
+    public Benchmark(int warmupIterations, int measuredIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+    }
+
+    /**
+     * Runs task and prints one result line.
+     * @param opsPerIteration how many operations one call of task performs
+     */
+    public void run(String name, long opsPerIteration, Task task) throws Exception {
+        long[] nanos = new long[measuredIterations];
+        quiet();
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                task.run();
+            }
+            for (int i = 0; i < measuredIterations; i++) {
+                long start = System.nanoTime();
+                task.run();
+                nanos[i] = System.nanoTime() - start;
+            }
+        } finally {
+            loud();
+        }
+
+        Arrays.sort(nanos);
+        double meanMs = Arrays.stream(nanos).average().orElse(0) / 1e6;
+        double medianMs = nanos[nanos.length / 2] / 1e6;
+        double opsPerSec = opsPerIteration / (meanMs / 1e3);
+        double nsPerOp = meanMs * 1e6 / opsPerIteration;
+        System.out.printf(Locale.US, "%-45s %12.3f ms/iter (median %10.3f) %14.0f ops/s %12.1f ns/op%n",
+                name, meanMs, medianMs, opsPerSec, nsPerOp);
+    }
+
+    static void quiet() {
+        System.setOut(DISCARD);
+        System.setErr(DISCARD);
+    }
+
+    static void loud() {
+        System.setOut(REAL_OUT);
+        System.setErr(REAL_ERR);
+    }
+}
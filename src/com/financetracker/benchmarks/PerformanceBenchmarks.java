@@ -0,0 +1,141 @@
+package com.financetracker.benchmarks;
+
+import com.financetracker.managers.FileManager;
+import com.financetracker.models.Account;
+import com.financetracker.models.Transaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for parsing, serialization, load/save and Account operations.
+ * Everything runs against synthetic data in a temporary directory, so real
+ * transactions.txt files are never touched.
+ *
+ * Usage: java com.financetracker.benchmarks.PerformanceBenchmarks [sizes]
+ *   sizes  comma separated record counts for load/save, default 10000,1000000
+ *          (add 10000000 for the large run; needs a few GB of heap)
+ */
+public class PerformanceBenchmarks {
+    private static final int PARSE_BATCH = 100_000;
+    private static final int ADD_BATCH = 1_000;
+
+    // Results are folded in here so the JIT cannot drop the measured work
+    static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        long[] sizes = parseSizes(args.length > 0 ? args[0] : "10000,1000000");
+        Path dir = Files.createTempDirectory("finance-bench");
+        try {
+            System.out.println("=== Finance Tracker Benchmarks ===");
+            System.out.println("Java " + System.getProperty("java.version")
+                    + ", " + Runtime.getRuntime().availableProcessors() + " cpus, data in " + dir);
+            benchmarkParsing();
+            for (long size : sizes) {
+                benchmarkLoadAndSave(dir, size);
+            }
+            benchmarkAccount(dir);
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private static void benchmarkParsing() throws Exception {
+        System.out.println("\n--- Transaction format ---");
+        List<String> lines = new SyntheticDataGenerator(1).generateLines(PARSE_BATCH);
+        List<Transaction> transactions = new SyntheticDataGenerator(2).generate(PARSE_BATCH);
+        Benchmark bench = new Benchmark(5, 10);
+
+        bench.run("Transaction.fromFileFormat", PARSE_BATCH, () -> {
+            long h = 0;
+            for (String line : lines) h += Transaction.fromFileFormat(line).getId();
+            sink += h;
+        });
+        bench.run("Transaction.toFileFormat", PARSE_BATCH, () -> {
+            long h = 0;
+            for (Transaction t : transactions) h += t.toFileFormat().length();
+            sink += h;
+        });
+    }
+
+    private static void benchmarkLoadAndSave(Path dir, long size) throws Exception {
+        System.out.println("\n--- FileManager, " + size + " records ---");
+        String file = dir.resolve("load-" + size + ".txt").toString();
+        new SyntheticDataGenerator(3).writeFile(file, size);
+        FileManager fileManager = new FileManager(file);
+        // Fewer iterations for the big files, they take seconds each
+        Benchmark bench = size >= 1_000_000 ? new Benchmark(1, 3) : new Benchmark(3, 10);
+
+        bench.run("loadTransactions (" + size + ")", size, () -> sink += fileManager.loadTransactions().size());
+        bench.run("loadTransactionsParallel (" + size + ")", size,
+                () -> sink += fileManager.loadTransactionsParallel().size());
+
+        Benchmark.quiet();
+        List<Transaction> loaded;
+        try {
+            loaded = fileManager.loadTransactions();
+        } finally {
+            Benchmark.loud();
+        }
+        bench.run("saveTransactions (" + size + ")", size, () -> fileManager.saveTransactions(loaded));
+    }
+
+    private static void benchmarkAccount(Path dir) throws Exception {
+        System.out.println("\n--- Account ---");
+        Benchmark bench = new Benchmark(3, 10);
+
+        Benchmark.quiet();
+        Account account;
+        try {
+            String file = dir.resolve("account.txt").toString();
+            new SyntheticDataGenerator(4).writeFile(file, 100_000);
+            account = new Account("Benchmark", new FileManager(file));
+        } finally {
+            Benchmark.loud();
+        }
+
+        bench.run("Account.addIncome (journal, incl. save)", ADD_BATCH, () -> {
+            for (int i = 0; i < ADD_BATCH; i++) account.addIncome(10.25, "bench income");
+        });
+        bench.run("Account.addExpense (journal, incl. save)", ADD_BATCH, () -> {
+            for (int i = 0; i < ADD_BATCH; i++) account.addExpense(1.10, "bench expense");
+        });
+        account.setJournalMode(false);
+        bench.run("Account.addIncome (full rewrite, incl. save)", 10, () -> {
+            for (int i = 0; i < 10; i++) account.addIncome(10.25, "bench income");
+        });
+        account.setJournalMode(true);
+
+        bench.run("Account.getTotalIncome", 1_000_000, () -> {
+            double total = 0;
+            for (int i = 0; i < 1_000_000; i++) total += account.getTotalIncome();
+            sink += (long) total;
+        });
+        bench.run("Account.getTotalExpenses", 1_000_000, () -> {
+            double total = 0;
+            for (int i = 0; i < 1_000_000; i++) total += account.getTotalExpenses();
+            sink += (long) total;
+        });
+        bench.run("Account.verifyTotals (full recount)", account.getTransactionCount(),
+                () -> sink += account.verifyTotals() ? 1 : 0);
+    }
+
+    private static long[] parseSizes(String arg) {
+        String[] parts = arg.split(",");
+        long[] sizes = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Long.parseLong(parts[i].trim());
+        }
+        return sizes;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.financetracker.benchmarks;
+
+import com.financetracker.models.Expense;
+import com.financetracker.models.Income;
+import com.financetracker.models.Transaction;
+import com.financetracker.models.TransactionSerializer;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates realistic-looking transactions for benchmarks: a fixed seed,
+ * a mix of incomes and expenses spread over several years, and categories,
+ * sources and payment methods drawn from small sets like real data.
+ */
+public class SyntheticDataGenerator {
+    private static final String[] INCOME_CATEGORIES = { "Salary", "Freelance", "Investment", "Other Income" };
+    private static final String[] EXPENSE_CATEGORIES = {
+        "Food", "Transportation", "Housing", "Entertainment", "Healthcare", "Bills", "Shopping", "Education", "Other"
+    };
+    private static final String[] SOURCES = { "Company XYZ", "Client A", "Client B", "Broker", "Other" };
+    private static final String[] PAYMENT_METHODS = { "Card", "Cash", "UPI", "Bank Transfer", "Unknown" };
+    private static final String[] WORDS = {
+        "rent", "uber", "groceries", "coffee", "salary", "electricity", "internet", "books", "movie", "pharmacy",
+        "lunch", "fuel", "gym", "phone", "dividend", "invoice", "taxi", "dinner", "shoes", "course"
+    };
+
+    private final Random random;
+    private final LocalDate firstDay;
+    private final int days;
+    private int nextId = 1001;
+
+    public SyntheticDataGenerator(long seed) {
+        this(seed, LocalDate.of(2015, 1, 1), 10 * 365);
+    }
+
+    public SyntheticDataGenerator(long seed, LocalDate firstDay, int days) {
+        this.random = new Random(seed);
+        this.firstDay = firstDay;
+        this.days = days;
+    }
+
+    public Transaction next() {
+        int id = nextId++;
+        LocalDate date = firstDay.plusDays(random.nextInt(days));
+        String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+        // About one record in four is income, with larger amounts
+        if (random.nextInt(4) == 0) {
+            double amount = (50_000 + random.nextInt(500_000)) / 100.0;
+            return new Income(id, amount, description, pick(INCOME_CATEGORIES), date, pick(SOURCES));
+        }
+        double amount = (100 + random.nextInt(50_000)) / 100.0;
+        return new Expense(id, amount, description, pick(EXPENSE_CATEGORIES), date,
+                random.nextBoolean(), pick(PAYMENT_METHODS));
+    }
+
+    public List<Transaction> generate(int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(next());
+        }
+        return transactions;
+    }
+
+    public List<String> generateLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(next().toFileFormat());
+        }
+        return lines;
+    }
+
+    /** Streams count records in the real text format to a file, without keeping them in memory */
+    public void writeFile(String fileName, long count) throws IOException {
+        TransactionSerializer serializer = new TransactionSerializer();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(fileName), Charset.defaultCharset())) {
+            for (long i = 0; i < count; i++) {
+                serializer.appendLine(next());
+                if (serializer.length() >= 64 * 1024) {
+                    serializer.writeTo(writer);
+                }
+            }
+            serializer.writeTo(writer);
+        }
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
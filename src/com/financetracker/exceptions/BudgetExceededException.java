@@ -0,0 +1,17 @@
+package com.financetracker.exceptions;
+
+// A hard budget would go over its limit; the available amount is what is left of the limit
+public class BudgetExceededException extends InsufficientFundsException {
+    private String category;
+    private double limit;
+
+    public BudgetExceededException(String message, String category, double requestedAmount,
+                                   double limit, double remaining) {
+        super(message, requestedAmount, remaining);
+        this.category = category;
+        this.limit = limit;
+    }
+
+    public String getCategory() { return category; }
+    public double getLimit() { return limit; }
+}
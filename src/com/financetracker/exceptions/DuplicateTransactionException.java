@@ -0,0 +1,7 @@
+package com.financetracker.exceptions;
+
+public class DuplicateTransactionException extends InvalidTransactionException {
+    public DuplicateTransactionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,65 @@
+package com.financetracker.main;
+
+import com.financetracker.managers.AccountRegistry;
+import com.financetracker.models.Account;
+import com.financetracker.exceptions.InvalidTransactionException;
+
+import java.io.File;
+
+public class AccountRegistryTester {
+    private static final String TEST_DIRECTORY = "registry_test_accounts";
+
+    public static void main(String[] args) {
+        System.out.println("=== AccountRegistry Tests ===");
+        cleanup(new File(TEST_DIRECTORY));
+
+        // Small budget so only a few accounts fit at once
+        AccountRegistry registry = new AccountRegistry(TEST_DIRECTORY, 64 * 1024);
+
+        // Test 1: Each account gets its own data file
+        try {
+            registry.getAccount("Alice").addIncome(100, "Alice salary");
+            registry.getAccount("Bob").addIncome(250, "Bob salary");
+        } catch (InvalidTransactionException e) {
+            System.out.println("FAILED: Income error - " + e.getMessage());
+        }
+        check(registry.getAccount("Alice").getBalance() == 100
+                && registry.getAccount("Bob").getBalance() == 250, "Accounts keep separate balances");
+        check(registry.exists("Alice") && registry.exists("Bob"), "Each account has its own data file");
+
+        // Test 2: Loading many accounts evicts the least recently used ones
+        for (int i = 0; i < 50; i++) {
+            registry.getAccount("User " + i);
+        }
+        check(registry.getLoadedCount() < 52, "Accounts evicted under the memory budget (loaded: "
+                + registry.getLoadedCount() + ", evicted: " + registry.getEvictions() + ")");
+        check(registry.getEstimatedMemory() <= registry.getMemoryBudget(), "Cached accounts fit the budget");
+
+        // Test 3: An evicted account reloads with its data
+        check(!registry.isLoaded("Alice"), "Least recently used account was evicted");
+        check(registry.getAccount("Alice").getBalance() == 100, "Evicted account reloads from its own file");
+
+        // Test 4: Names that are not valid file names still work
+        try {
+            registry.getAccount("J\u00fcrgen / Joint").addIncome(10, "Shared");
+        } catch (InvalidTransactionException e) {
+            System.out.println("FAILED: Income error - " + e.getMessage());
+        }
+        check(registry.listAccountNames().contains("J\u00fcrgen / Joint"), "Account names round-trip through directories");
+
+        registry.close();
+        cleanup(new File(TEST_DIRECTORY));
+    }
+
+    private static void check(boolean passed, String description) {
+        System.out.println((passed ? "PASSED: " : "FAILED: ") + description);
+    }
+
+    private static void cleanup(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) cleanup(child);
+        }
+        file.delete();
+    }
+}
@@ -1,12 +1,22 @@
 package com.financetracker.main;
 
+import com.financetracker.managers.FileManager;
 import com.financetracker.models.Account;
+import com.financetracker.models.Budget;
+import com.financetracker.models.Income;
+import com.financetracker.exceptions.BudgetExceededException;
+import com.financetracker.exceptions.DataFileException;
 import com.financetracker.exceptions.InsufficientFundsException;
 import com.financetracker.exceptions.InvalidTransactionException;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
 
 public class AccountTesterSimple {
+    private static final String SUMMARY_TEST_FILE = "summary_test.txt";
+
     public static void main(String[] args) {
         System.out.println("=== Account Class Tests ===");
         cleanup();
@@ -47,10 +57,114 @@ public class AccountTesterSimple {
         account.displayTransactions();
 
         System.out.println(account.getStatistics());
+
+        // Test 6: Running totals agree with a full recount
+        if (account.verifyTotals()) {
+            System.out.println("PASSED: Running totals match recomputed totals");
+        } else {
+            System.out.println("FAILED: Running totals out of sync");
+        }
+
+        // Test 7: Hard budget refuses the expense that would exceed it, and survives a reload
+        try {
+            account.setBudget("Food", Budget.Period.MONTHLY, 100, 80, true);
+            account.addExpense(70, "Groceries", "Food", true);
+            account.addExpense(15, "Lunch", "Food", false); // crosses the 80% alert
+            double before = account.getBalance();
+            try {
+                account.addExpense(20, "Dinner", "Food", false);
+                System.out.println("FAILED: Budget exceeded without an error");
+            } catch (BudgetExceededException e) {
+                System.out.println(account.getBalance() == before
+                        ? "PASSED: Budget limit enforced"
+                        : "FAILED: Refused expense changed the balance");
+            }
+            account.close();
+            Account reloaded = new Account("Local Test User");
+            long spent = reloaded.getBudgetManager().getSpentCents("Food", Budget.Period.MONTHLY);
+            System.out.println(spent == 8500
+                    ? "PASSED: Budget spend rebuilt on load"
+                    : "FAILED: Budget spend after reload is " + spent);
+            reloaded.close();
+        } catch (InvalidTransactionException | InsufficientFundsException e) {
+            System.out.println("FAILED: Budget error - " + e.getMessage());
+        }
+        cleanup();
+
+        // Test 8: Summary-only start, lazy history and fallback to a full load
+        try {
+            Account full = new Account("Summary User", new FileManager(SUMMARY_TEST_FILE));
+            full.addIncome(500, "Summary Salary");
+            full.addExpense(200, "Summary Rent");
+            full.close(); // writes the summary
+
+            new FileManager(SUMMARY_TEST_FILE).appendTransaction(new Income(50, "Appended later", "Salary", "Job"));
+            Account quick = new Account("Summary User", new FileManager(SUMMARY_TEST_FILE), true);
+            boolean summaryOnly = !quick.isHistoryLoaded() && quick.getBalance() == 350
+                    && quick.getTransactionCount() == 3;
+            System.out.println(summaryOnly
+                    ? "PASSED: Summary-only start includes records appended after the summary"
+                    : "FAILED: Summary-only start - loaded: " + quick.isHistoryLoaded() + ", balance: " + quick.getBalance());
+            int listed = quick.getTransactions(null, null).size();
+            System.out.println(listed == 3 && quick.isHistoryLoaded()
+                    ? "PASSED: History loads on first query"
+                    : "FAILED: First query saw " + listed + " transactions");
+            quick.close();
+
+            quick = new Account("Summary User", new FileManager(SUMMARY_TEST_FILE), true);
+            quick.addExpense(25, "Summary Lunch");
+            System.out.println(quick.isHistoryLoaded() && quick.getBalance() == 325 && quick.getTransactionCount() == 4
+                    ? "PASSED: History loads on first add"
+                    : "FAILED: First add - balance " + quick.getBalance());
+            quick.close();
+
+            // A damaged summary fails its CRC
+            File summaryFile = new File(new FileManager(SUMMARY_TEST_FILE).getSummaryFile());
+            try (RandomAccessFile raf = new RandomAccessFile(summaryFile, "rw")) {
+                raf.seek(20);
+                raf.write(raf.read() ^ 0xFF);
+            }
+            Account afterDamage = new Account("Summary User", new FileManager(SUMMARY_TEST_FILE), true);
+            System.out.println(afterDamage.isHistoryLoaded() && afterDamage.getBalance() == 325
+                    ? "PASSED: Damaged summary falls back to a full load"
+                    : "FAILED: Damaged summary was used");
+            afterDamage.close();
+
+            // A summary for a file that has since been rewritten no longer matches it
+            new FileManager(SUMMARY_TEST_FILE).saveTransactions(Arrays.asList(new Income(10, "Rewritten", "Salary", "Job")));
+            Account afterRewrite = new Account("Summary User", new FileManager(SUMMARY_TEST_FILE), true);
+            System.out.println(afterRewrite.isHistoryLoaded() && afterRewrite.getBalance() == 10
+                    ? "PASSED: Stale summary falls back to a full load"
+                    : "FAILED: Stale summary used, balance " + afterRewrite.getBalance());
+            afterRewrite.close();
+        } catch (InvalidTransactionException | InsufficientFundsException | DataFileException | IOException e) {
+            System.out.println("FAILED: Summary error - " + e.getMessage());
+        } finally {
+            cleanupSummaryTest();
+        }
+    }
+
+    private static void cleanupSummaryTest() {
+        FileManager fileManager = new FileManager(SUMMARY_TEST_FILE);
+        new File(SUMMARY_TEST_FILE).delete();
+        new File(fileManager.getSummaryFile()).delete();
+        new File(fileManager.getSnapshotFile()).delete();
+        new File(fileManager.getBudgetsFile()).delete();
+        try {
+            fileManager.getBackupManager().deleteAll();
+        } catch (IOException e) {
+            System.out.println("Could not remove backups: " + e.getMessage());
+        }
     }
 
     private static void cleanup() {
         new File("transactions.txt").delete();
-        new File("transactions_backup.txt").delete();
+        new File("transactions.budgets").delete();
+        new File("transactions.summary").delete();
+        try {
+            new FileManager().getBackupManager().deleteAll();
+        } catch (IOException e) {
+            System.out.println("Could not remove backups: " + e.getMessage());
+        }
     }
 }
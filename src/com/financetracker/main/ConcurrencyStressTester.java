@@ -0,0 +1,194 @@
+package com.financetracker.main;
+
+import com.financetracker.managers.FileManager;
+import com.financetracker.managers.PersistenceWriter.DurabilityMode;
+import com.financetracker.models.Account;
+import com.financetracker.models.Income;
+import com.financetracker.models.Transaction;
+import com.financetracker.exceptions.InsufficientFundsException;
+import com.financetracker.exceptions.InvalidTransactionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hammers one Account from many threads and checks the invariants:
+ * unique ids, no overdraft ever visible, totals matching the successful
+ * adds, and the data file reloading to the same state. The account tests
+ * run once per durability mode.
+ *
+ * Usage: java com.financetracker.main.ConcurrencyStressTester [threads] [opsPerThread]
+ */
+public class ConcurrencyStressTester {
+    private static final String TEST_FILE = "stress_transactions.txt";
+    private static final long INCOME_CENTS = 1000;  // 10.00
+    private static final long EXPENSE_CENTS = 700;  // 7.00, so expenses regularly hit the balance limit
+
+    private static final PrintStream OUT = System.out;
+    private static final PrintStream ERR = System.err;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        System.out.println("=== Concurrency Stress Tests (" + threads + " threads x " + opsPerThread + " ops) ===");
+        cleanup();
+
+        testIdAllocation(threads, opsPerThread);
+        for (DurabilityMode mode : DurabilityMode.values()) {
+            System.out.println("--- Durability mode " + mode + " ---");
+            testAccount(threads, opsPerThread, mode);
+            cleanup();
+        }
+
+        cleanup();
+    }
+
+    // Test 1: ids handed out concurrently are unique
+    private static void testIdAllocation(int threads, int opsPerThread) throws Exception {
+        Set<Integer> ids = Collections.synchronizedSet(new HashSet<Integer>());
+        AtomicInteger created = new AtomicInteger();
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < opsPerThread; i++) {
+                ids.add(new Income(1, "id test", "Other", "Other").getId());
+                created.incrementAndGet();
+            }
+        });
+        check(ids.size() == created.get(), "Unique ids for " + created.get() + " concurrent transactions");
+    }
+
+    // Test 2: mixed incomes and expenses against one account
+    private static void testAccount(int threads, int opsPerThread, DurabilityMode mode) throws Exception {
+        FileManager fileManager = new FileManager(TEST_FILE);
+        Account account = new Account("Stress Test", fileManager);
+        account.setDurabilityMode(mode);
+
+        AtomicLong incomeCents = new AtomicLong();
+        AtomicLong expenseCents = new AtomicLong();
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicBoolean overdraftSeen = new AtomicBoolean();
+        AtomicBoolean errors = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+
+        // Watches the balance the whole time; it must never go negative
+        Thread watcher = new Thread(() -> {
+            while (!done.get()) {
+                if (account.getBalance() < 0) overdraftSeen.set(true);
+                Thread.yield();
+            }
+        });
+        watcher.start();
+
+        quiet();
+        try {
+            runConcurrently(threads, () -> {
+                for (int i = 0; i < opsPerThread; i++) {
+                    try {
+                        if (i % 3 == 0) {
+                            account.addIncome(INCOME_CENTS / 100.0, "stress income");
+                            incomeCents.addAndGet(INCOME_CENTS);
+                        } else {
+                            account.addExpense(EXPENSE_CENTS / 100.0, "stress expense");
+                            expenseCents.addAndGet(EXPENSE_CENTS);
+                        }
+                        successes.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        rejected.incrementAndGet();
+                    } catch (InvalidTransactionException e) {
+                        errors.set(true);
+                    }
+                }
+            });
+        } finally {
+            loud();
+            done.set(true);
+            watcher.join();
+        }
+
+        System.out.println("Added " + successes.get() + ", rejected for insufficient funds " + rejected.get());
+        check(!errors.get(), "No unexpected transaction errors");
+        check(!overdraftSeen.get(), "Balance never observed below zero");
+        check(account.getTransactionCount() == successes.get(), "Transaction count matches successful adds");
+        check(Math.round(account.getTotalIncome() * 100) == incomeCents.get()
+                && Math.round(account.getTotalExpenses() * 100) == expenseCents.get(), "Totals match successful adds");
+        check(account.verifyTotals(), "Running totals and balance match recomputed totals");
+
+        List<Transaction> history = account.getTransactions(null, null);
+        Set<Integer> ids = new HashSet<>();
+        for (Transaction t : history) ids.add(t.getId());
+        check(ids.size() == history.size(), "No duplicate ids in account history");
+
+        // Test 3: the journal holds exactly what memory holds once queued writes are drained
+        account.close();
+        quiet();
+        Account reloaded;
+        try {
+            reloaded = new Account("Stress Test", new FileManager(TEST_FILE));
+        } finally {
+            loud();
+        }
+        check(reloaded.getTransactionCount() == account.getTransactionCount()
+                && reloaded.getBalance() == account.getBalance(), "Reloaded file matches in-memory account");
+    }
+
+    private static void runConcurrently(int threads, Runnable work) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    work.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown(); // release every thread at once for maximum contention
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+    }
+
+    private static void check(boolean passed, String description) {
+        System.out.println((passed ? "PASSED: " : "FAILED: ") + description);
+    }
+
+    // Account prints a line per add; keep the console readable
+    private static void quiet() {
+        PrintStream discard = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        });
+        System.setOut(discard);
+        System.setErr(discard);
+    }
+
+    private static void loud() {
+        System.setOut(OUT);
+        System.setErr(ERR);
+    }
+
+    private static void cleanup() {
+        new File(TEST_FILE).delete();
+        try {
+            new FileManager(TEST_FILE).getBackupManager().deleteAll();
+        } catch (IOException e) {
+            System.out.println("Could not remove backups: " + e.getMessage());
+        }
+        new File("stress_transactions.snapshot").delete();
+        new File("stress_transactions.summary").delete();
+    }
+}
@@ -0,0 +1,147 @@
+package com.financetracker.main;
+
+import com.financetracker.managers.CsvImporter;
+import com.financetracker.managers.FileManager;
+import com.financetracker.managers.ImportReport;
+import com.financetracker.models.Account;
+import com.financetracker.models.Expense;
+import com.financetracker.models.Transaction;
+import com.financetracker.exceptions.DataFileException;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.List;
+
+public class CsvImporterTester {
+    private static final String TEST_DIRECTORY = "csv_test_data";
+
+    public static void main(String[] args) {
+        System.out.println("=== CsvImporter Tests ===");
+        cleanup(new File(TEST_DIRECTORY));
+        new File(TEST_DIRECTORY).mkdirs();
+
+        // Test 1: Quoted fields may hold the delimiter, doubled quotes and line breaks
+        Account account = newAccount("quoted");
+        try {
+            ImportReport report = importCsv(account, 1000,
+                    "Date,Description,Amount\n"
+                    + "2024-01-01,Salary,\"1,000.00\"\n"
+                    + "2024-01-02,\"Coffee, \"\"large\"\"\nat the corner\",-4.50\n"
+                    + "2024-01-03,Lunch,-12.00\n");
+            List<Transaction> all = account.getTransactions(null, null);
+            check(report.getImportedCount() == 3 && all.size() == 3
+                    && all.get(1).getDescription().equals("Coffee, \"large\" at the corner")
+                    && all.get(0).getAmount() == 1000.00, "Quoted and multi-line fields");
+        } finally {
+            account.close();
+        }
+
+        // Test 2: Signs from '-', trailing '-', parentheses and DR/CR markers; other letters are refused
+        account = newAccount("signs");
+        try {
+            ImportReport report = importCsv(account, 1000,
+                    "Date,Description,Amount\n"
+                    + "2024-02-01,Deposit,500.00 CR\n"
+                    + "2024-02-02,Card payment,100.00 DR\n"
+                    + "2024-02-03,Refund reversal,(20.00)\n"
+                    + "2024-02-04,Fee,3.00-\n"
+                    + "2024-02-05,Bonus,\"$ 1,234.56\"\n"
+                    + "2024-02-06,Typo,1.5e3\n");
+            List<Transaction> all = account.getTransactions(null, null);
+            boolean signs = all.size() == 5
+                    && !(all.get(0) instanceof Expense) && all.get(1) instanceof Expense
+                    && all.get(2) instanceof Expense && all.get(3) instanceof Expense
+                    && !(all.get(4) instanceof Expense) && all.get(4).getAmount() == 1234.56;
+            check(signs, "Sign markers decide income or expense");
+            check(report.getRejectedCount() == 1
+                    && report.getRejections().get(0).getReason().equals("Invalid amount"),
+                    "Amount with stray letters rejected");
+        } finally {
+            account.close();
+        }
+
+        // Test 3: Separate debit and credit columns
+        account = newAccount("debit_credit");
+        try {
+            ImportReport report = importCsv(account, 1000,
+                    "Date,Details,Debit,Credit\n"
+                    + "2024-03-01,Pay,,250.00\n"
+                    + "2024-03-02,Rent,-100.00,\n"
+                    + "2024-03-03,Both,5.00,5.00\n");
+            check(report.getImportedCount() == 2 && account.getBalance() == 150.00
+                    && report.getRejections().get(0).getReason().equals("Both debit and credit given"),
+                    "Debit and credit columns");
+        } finally {
+            account.close();
+        }
+
+        // Test 4: Rejected rows report the line they start on, counting lines inside quoted fields
+        account = newAccount("line_numbers");
+        try {
+            ImportReport report = importCsv(account, 1000,
+                    "Date,Description,Amount\n"
+                    + "2024-04-01,\"Two\nlines\",10.00\n"
+                    + "not a date,Broken,10.00\n"
+                    + "\n"
+                    + "2024-04-02,\"Never closed,10.00\n");
+            List<ImportReport.RejectedRow> rejections = report.getRejections();
+            check(rejections.size() == 2
+                    && rejections.get(0).getLineNo() == 4 && rejections.get(0).getReason().equals("Invalid date")
+                    && rejections.get(1).getLineNo() == 6
+                    && rejections.get(1).getReason().equals("Unterminated quoted field"),
+                    "Rejected rows keep their line numbers");
+        } finally {
+            account.close();
+        }
+
+        // Test 5: Rows split over many small batches keep their order and can spend earlier batches' income
+        account = newAccount("batches");
+        try {
+            StringBuilder csv = new StringBuilder("Date,Description,Amount\n");
+            csv.append("2024-05-01,Opening,100.00\n");
+            for (int i = 0; i < 9; i++) {
+                csv.append("2024-05-").append(String.format("%02d", i + 2)).append(",Spend ").append(i).append(",-10.00\n");
+            }
+            ImportReport report = importCsv(account, 2, csv.toString());
+            List<Transaction> all = account.getTransactions(null, null);
+            boolean ordered = true;
+            for (int i = 1; i < all.size(); i++) {
+                if (all.get(i).getId() <= all.get(i - 1).getId()) ordered = false;
+            }
+            check(report.getRowsRead() == 10 && report.getImportedCount() == 10 && ordered
+                    && account.getBalance() == 10.00, "Batch boundaries keep row order and balance");
+        } finally {
+            account.close();
+        }
+
+        cleanup(new File(TEST_DIRECTORY));
+    }
+
+    private static Account newAccount(String name) {
+        FileManager fileManager = new FileManager(TEST_DIRECTORY + File.separator + name + ".txt");
+        return new Account("CSV " + name, fileManager);
+    }
+
+    private static ImportReport importCsv(Account account, int batchSize, String csv) {
+        CsvImporter importer = new CsvImporter(account);
+        importer.setBatchSize(batchSize);
+        try {
+            return importer.importFrom(new StringReader(csv));
+        } catch (DataFileException e) {
+            System.out.println("FAILED: Import error - " + e.getMessage());
+            return new ImportReport();
+        }
+    }
+
+    private static void check(boolean passed, String description) {
+        System.out.println((passed ? "PASSED: " : "FAILED: ") + description);
+    }
+
+    private static void cleanup(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) cleanup(child);
+        }
+        file.delete();
+    }
+}
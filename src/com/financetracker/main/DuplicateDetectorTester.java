@@ -0,0 +1,124 @@
+package com.financetracker.main;
+
+import com.financetracker.managers.FileManager;
+import com.financetracker.models.Account;
+import com.financetracker.models.DuplicateDetector;
+import com.financetracker.models.Income;
+import com.financetracker.models.Transaction;
+import com.financetracker.exceptions.DuplicateTransactionException;
+import com.financetracker.exceptions.InvalidTransactionException;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+public class DuplicateDetectorTester {
+    private static final String TEST_DIRECTORY = "duplicate_test_data";
+
+    public static void main(String[] args) {
+        System.out.println("=== DuplicateDetector Tests ===");
+        cleanup(new File(TEST_DIRECTORY));
+        new File(TEST_DIRECTORY).mkdirs();
+        LocalDate today = LocalDate.now();
+
+        // Test 1: FLAG (the default) adds the repeat and marks it for review
+        Account account = newAccount("flag");
+        try {
+            account.addIncome(25, "Coffee refund", "Other Income", "Cafe");
+            account.addIncome(25, "coffee  REFUND!", "Other Income", "Cafe"); // same after normalizing
+            check(account.getTransactionCount() == 2 && account.getFlaggedDuplicates().size() == 1,
+                    "FLAG adds the repeat and flags it");
+        } catch (InvalidTransactionException e) {
+            System.out.println("FAILED: Flag error - " + e.getMessage());
+        } finally {
+            account.close();
+        }
+
+        // Test 2: REJECT refuses a single add and a batch row alike
+        account = newAccount("reject");
+        try {
+            account.setDuplicatePolicy(DuplicateDetector.Policy.REJECT);
+            account.addIncome(40, "Refund", "Other Income", "Shop");
+            boolean thrown = false;
+            try {
+                account.addIncome(40, "Refund", "Other Income", "Shop");
+            } catch (DuplicateTransactionException e) {
+                thrown = true;
+            }
+            String[] rejected = account.addAll(Arrays.asList(
+                    income(40, "Refund", today), income(15, "Parking refund", today), income(15, "Parking refund", today)));
+            check(thrown && Account.DUPLICATE_REJECTED.equals(rejected[0]) && rejected[1] == null
+                    && Account.DUPLICATE_REJECTED.equals(rejected[2]) && account.getTransactionCount() == 2,
+                    "REJECT treats a batch like single adds");
+        } catch (InvalidTransactionException e) {
+            System.out.println("FAILED: Reject error - " + e.getMessage());
+        } finally {
+            account.close();
+        }
+
+        // Test 3: MERGE keeps the existing record and adds nothing
+        account = newAccount("merge");
+        try {
+            account.setDuplicatePolicy(DuplicateDetector.Policy.MERGE);
+            account.addIncome(60, "Transfer", "Other Income", "Bank");
+            account.addIncome(60, "Transfer", "Other Income", "Bank");
+            String[] rejected = account.addAll(Arrays.asList(income(60, "Transfer", today)));
+            check(account.getTransactionCount() == 1 && account.getBalance() == 60
+                    && Account.DUPLICATE_MERGED.equals(rejected[0]), "MERGE folds repeats into the existing record");
+        } catch (InvalidTransactionException e) {
+            System.out.println("FAILED: Merge error - " + e.getMessage());
+        } finally {
+            account.close();
+        }
+
+        // Test 4: Under FLAG a batch repeating a row keeps both, flagging the second as a single add would
+        account = newAccount("batch");
+        try {
+            Income first = income(5, "Vending", today);
+            Income second = income(5, "Vending", today);
+            String[] rejected = account.addAll(Arrays.asList(first, second));
+            check(rejected[0] == null && rejected[1] == null && !account.isFlaggedDuplicate(first.getId())
+                    && account.isFlaggedDuplicate(second.getId()), "Repeats within a batch are flagged");
+        } finally {
+            account.close();
+        }
+
+        // Test 5: A record that has left the hot window is still found through the Bloom filter
+        account = newAccount("cold");
+        try {
+            account.setDuplicatePolicy(DuplicateDetector.Policy.REJECT);
+            LocalDate old = today.minusDays(DuplicateDetector.HOT_WINDOW_DAYS + 20);
+            account.addAll(Arrays.asList(income(70, "Old dividend", old)));
+            account.addAll(Arrays.asList(income(1, "Newest record", today))); // moves the hot window past it
+            String[] rejected = account.addAll(Arrays.asList(
+                    income(70, "Old dividend", old), income(70, "Other dividend", old)));
+            check(Account.DUPLICATE_REJECTED.equals(rejected[0]) && rejected[1] == null,
+                    "Cold history checked through the Bloom filter");
+        } finally {
+            account.close();
+        }
+
+        cleanup(new File(TEST_DIRECTORY));
+    }
+
+    private static Account newAccount(String name) {
+        FileManager fileManager = new FileManager(TEST_DIRECTORY + File.separator + name + ".txt");
+        return new Account("Duplicates " + name, fileManager);
+    }
+
+    private static Income income(double amount, String description, LocalDate date) {
+        return new Income(Transaction.allocateIds(1), amount, description, "Other Income", date, "Test");
+    }
+
+    private static void check(boolean passed, String description) {
+        System.out.println((passed ? "PASSED: " : "FAILED: ") + description);
+    }
+
+    private static void cleanup(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) cleanup(child);
+        }
+        file.delete();
+    }
+}
@@ -1,12 +1,18 @@
 package com.financetracker.main;
 
+import com.financetracker.managers.BackupManager;
+import com.financetracker.managers.CategoryManager;
 import com.financetracker.managers.FileManager;
+import com.financetracker.models.Category;
 import com.financetracker.models.Expense;
 import com.financetracker.models.Income;
 import com.financetracker.models.Transaction;
 import com.financetracker.exceptions.DataFileException;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
 import java.util.*;
 
 public class FileManagerTester {
@@ -45,6 +51,196 @@ public class FileManagerTester {
         } catch (DataFileException e) {
             System.out.println("FAILED: Restore error - " + e.getMessage());
         }
+
+        // Test 3: Incremental backup and point-in-time restore
+        try {
+            long beforeAppend = System.currentTimeMillis();
+            Thread.sleep(5);
+            fm.appendTransaction(new Income(25, "Appended Income", "Salary", "Job"));
+            BackupManager.Generation generation = fm.backup();
+            if (generation != null && generation.getKind() == BackupManager.Kind.INCREMENTAL) {
+                System.out.println("PASSED: Incremental backup stored " + generation.getStoredBytes() + " bytes");
+            } else {
+                System.out.println("FAILED: Expected an incremental backup, got " + generation);
+            }
+            int withAppend = fm.loadTransactions().size();
+            fm.restoreToTime(beforeAppend);
+            int restored = fm.loadTransactions().size();
+            System.out.println(restored == withAppend - 1
+                    ? "PASSED: Point-in-time restore"
+                    : "FAILED: Restored " + restored + " transactions, expected " + (withAppend - 1));
+        } catch (DataFileException | InterruptedException e) {
+            System.out.println("FAILED: Backup error - " + e.getMessage());
+        }
+
+        // Test 4: Categories persist with ids and records can refer to them by id
+        FileManager refs = new FileManager("refs_test.txt");
+        try {
+            CategoryManager categories = new CategoryManager("categories_test.txt");
+            categories.addCategory("Pets | Vet", "Food, vet\\bills", Category.CategoryType.EXPENSE_CATEGORY);
+            CategoryManager reloaded = new CategoryManager("categories_test.txt");
+            Category pets = reloaded.getCategory("Pets | Vet");
+            System.out.println(pets != null && pets.getId() >= 100 && pets.getDescription().equals("Food, vet\\bills")
+                    ? "PASSED: Custom category reloaded with id " + pets.getId()
+                    : "FAILED: Custom category not reloaded: " + pets);
+
+            refs.setCategoryManager(reloaded);
+            refs.setCategoryReferences(true);
+            refs.saveTransactions(Arrays.asList(
+                    new Income(10, "Refs Income", "Salary", "Job"),
+                    new Expense(5, "Refs Expense", "Pets | Vet", false)));
+            refs.appendTransaction(new Expense(3, "Refs Hash", "#5", false));
+            List<Transaction> loaded = refs.loadTransactions();
+            String stored = new String(Files.readAllBytes(new File("refs_test.txt").toPath()));
+            System.out.println(stored.startsWith("#category-references") && stored.contains("|#1|")
+                    && loaded.get(0).getCategory().equals("Salary")
+                    && loaded.get(1).getCategory().equals("Pets | Vet")
+                    && loaded.get(2).getCategory().equals("#5")
+                    ? "PASSED: Category references round-trip"
+                    : "FAILED: Category references - " + loaded);
+
+            // A file without the header is read verbatim, so "#5" is not taken for category 5
+            refs.setCategoryReferences(false);
+            refs.saveTransactions(Arrays.asList(new Expense(4, "Plain Hash", "#5", false)));
+            List<Transaction> plain = refs.loadTransactions();
+            System.out.println(plain.size() == 1 && plain.get(0).getCategory().equals("#5")
+                    ? "PASSED: Plain file keeps \"#5\" as text"
+                    : "FAILED: Plain file category - " + plain);
+
+            // A removed category stays resolvable for files that still refer to it, but is no longer listed
+            reloaded.addCategory("Garden", "Plants and tools", Category.CategoryType.EXPENSE_CATEGORY);
+            int gardenId = reloaded.getCategoryId("Garden");
+            refs.setCategoryReferences(true);
+            refs.saveTransactions(Arrays.asList(new Expense(8, "Seeds", "Garden", false)));
+            reloaded.removeCategory("Garden");
+            CategoryManager afterRemove = new CategoryManager("categories_test.txt");
+            FileManager reread = new FileManager("refs_test.txt");
+            reread.setCategoryManager(afterRemove);
+            List<Transaction> kept = reread.loadTransactions();
+            boolean hidden = !afterRemove.categoryExists("Garden") && afterRemove.isRemoved(gardenId)
+                    && afterRemove.getAllCategories().stream().noneMatch(c -> c.getName().equals("Garden"));
+            afterRemove.addCategory("Garden", "Back again", Category.CategoryType.EXPENSE_CATEGORY);
+            System.out.println(kept.size() == 1 && kept.get(0).getCategory().equals("Garden") && hidden
+                    && afterRemove.getCategoryId("Garden") != gardenId
+                    ? "PASSED: Removed category still resolves after reload"
+                    : "FAILED: Removed category - " + kept + ", hidden: " + hidden);
+        } catch (Exception e) {
+            System.out.println("FAILED: Category persistence error - " + e.getMessage());
+        } finally {
+            new File("refs_test.txt").delete();
+            new File("categories_test.txt").delete();
+            try {
+                refs.getBackupManager().deleteAll();
+            } catch (IOException e) {
+                System.out.println("Could not remove backups: " + e.getMessage());
+            }
+        }
+
+        // Test 5: Backups of a file that is only appended to are still pruned
+        FileManager appendOnly = new FileManager("prune_test.txt");
+        try {
+            BackupManager backups = appendOnly.getBackupManager();
+            backups.setRetention(4, 24L * 60 * 60 * 1000);
+            for (int i = 0; i < 20; i++) {
+                appendOnly.appendTransaction(new Income(10 + i, "Prune Income " + i, "Salary", "Job"));
+                appendOnly.backup();
+            }
+            int kept = backups.getGenerations().size();
+            File restored = new File("prune_test_restored.txt");
+            backups.restore(backups.newest(), restored.toPath());
+            boolean complete = restored.length() == new File("prune_test.txt").length();
+            restored.delete();
+            System.out.println(kept < 20 && kept <= 6 && complete
+                    ? "PASSED: Append-only backups pruned to " + kept + " generations"
+                    : "FAILED: " + kept + " backup generations kept after 20 backups, restore complete: " + complete);
+        } catch (DataFileException | IOException e) {
+            System.out.println("FAILED: Backup pruning error - " + e.getMessage());
+        } finally {
+            appendOnly.closeJournal();
+            new File("prune_test.txt").delete();
+            try {
+                appendOnly.getBackupManager().deleteAll();
+            } catch (IOException e) {
+                System.out.println("Could not remove backups: " + e.getMessage());
+            }
+        }
+
+        // Test 6: Appends to a binary file with a torn last entry are not lost
+        FileManager torn = new FileManager("torn_test.txt");
+        try {
+            torn.setStorageFormat(FileManager.StorageFormat.BINARY);
+            List<Transaction> five = new ArrayList<>();
+            for (int i = 0; i < 5; i++) five.add(new Expense(5 + i, "Torn Expense " + i, "Food", false));
+            torn.saveTransactions(five);
+            File file = new File("torn_test.txt");
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(file.length() - 3); // a crash in the middle of the last record
+            }
+
+            FileManager reopened = new FileManager("torn_test.txt");
+            reopened.appendTransaction(new Expense(20, "After Tear 1", "Food", false));
+            reopened.appendTransaction(new Expense(21, "After Tear 2", "Transportation", false));
+            reopened.closeJournal();
+            List<Transaction> loaded = new FileManager("torn_test.txt").loadTransactions();
+            System.out.println(loaded.size() == 6 && loaded.get(5).getDescription().equals("After Tear 2")
+                    ? "PASSED: Torn binary tail removed before appending"
+                    : "FAILED: Expected 6 records after the torn tail, got " + loaded.size());
+        } catch (DataFileException | IOException e) {
+            System.out.println("FAILED: Torn tail error - " + e.getMessage());
+        } finally {
+            torn.closeJournal();
+            new File("torn_test.txt").delete();
+            try {
+                torn.getBackupManager().deleteAll();
+            } catch (IOException e) {
+                System.out.println("Could not remove backups: " + e.getMessage());
+            }
+        }
+
+        // Test 7: Full backups are copies, so damage to the live file in place does not reach them
+        FileManager damaged = new FileManager("damage_test.txt");
+        try {
+            List<Transaction> many = new ArrayList<>();
+            for (int i = 0; i < 200; i++) many.add(new Income(30 + i, "Damage Income " + i, "Salary", "Job"));
+            damaged.saveTransactions(many); // well past the 4KB that the end checksum covers
+            File file = new File("damage_test.txt");
+            byte[] original = Files.readAllBytes(file.toPath());
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(2);
+                raf.write('X'); // e.g. a bad block early in the file
+            }
+            BackupManager backups = damaged.getBackupManager();
+            File restored = new File("damage_test_restored.txt");
+            backups.restore(backups.newest(), restored.toPath());
+            boolean intact = Arrays.equals(original, Files.readAllBytes(restored.toPath()));
+            restored.delete();
+
+            // and damage to the backup itself is caught on restore, wherever it is
+            File full = new File(backups.getDirectory(), String.format("gen-%06d.full", backups.newest().getNumber()));
+            try (RandomAccessFile raf = new RandomAccessFile(full, "rw")) {
+                raf.seek(2);
+                raf.write('X');
+            }
+            boolean caught = false;
+            try {
+                backups.restore(backups.newest(), restored.toPath());
+            } catch (IOException e) {
+                caught = true;
+            }
+            restored.delete();
+            System.out.println(intact && caught
+                    ? "PASSED: Full backup survives damage to the live file and its own damage is detected"
+                    : "FAILED: Full backup intact: " + intact + ", damage detected: " + caught);
+        } catch (DataFileException | IOException e) {
+            System.out.println("FAILED: Full backup copy error - " + e.getMessage());
+        } finally {
+            new File("damage_test.txt").delete();
+            try {
+                damaged.getBackupManager().deleteAll();
+            } catch (IOException e) {
+                System.out.println("Could not remove backups: " + e.getMessage());
+            }
+        }
     }
 
     // private static void cleanup() {
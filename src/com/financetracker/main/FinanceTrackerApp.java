@@ -1,9 +1,14 @@
 package com.financetracker.main;
 
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
 
+import com.financetracker.managers.CsvImporter;
+import com.financetracker.managers.FileManager;
+import com.financetracker.managers.ImportReport;
 import com.financetracker.models.Account;
+import com.financetracker.models.Budget;
 
 public class FinanceTrackerApp {
     private static Scanner scanner = new Scanner(System.in);
@@ -14,8 +19,10 @@ public class FinanceTrackerApp {
         System.out.print("Enter your account name: ");
         String accountName = scanner.nextLine();
         
-        account = new Account(accountName);
+        // Summary-only: the balance is ready at once, the history loads when a menu option needs it
+        account = new Account(accountName, new FileManager(), true);
         System.out.println("Welcome, " + accountName + "!");
+        System.out.printf("Current balance: $%.2f%n", account.getBalance());
 
         boolean running = true;
         while(running) {
@@ -29,8 +36,12 @@ public class FinanceTrackerApp {
                     case 4: addExpenseDetailed(); break;
                     case 5: account.displayTransactions(); break;
                     case 6: account.displaySummary(); break;
-                    case 7: 
+                    case 7: browseTransactions(); break;
+                    case 8: importCsv(); break;
+                    case 9: manageBudgets(); break;
+                    case 10: 
                         System.out.println("Thank you for using Finance Tracker!");
+                        account.close(); // drains any pending background writes
                         running = false;
                         break;
                     default: 
@@ -57,7 +68,10 @@ public class FinanceTrackerApp {
         System.out.println("4. Add Expense (Detailed)");
         System.out.println("5. View Transactions");
         System.out.println("6. View Account Summary");
-        System.out.println("7. Exit");
+        System.out.println("7. Browse Transactions (Paged)");
+        System.out.println("8. Import Bank Statement (CSV)");
+        System.out.println("9. Budgets");
+        System.out.println("10. Exit");
     }
 
     private static void addIncomeBasic() {
@@ -136,6 +150,76 @@ public class FinanceTrackerApp {
         }
     }
 
+    // Newest first, one page at a time, so a long history stays readable and fast
+    private static void browseTransactions() {
+        int pageSize = Account.DEFAULT_PAGE_SIZE;
+        int offset = 0;
+        while (true) {
+            System.out.println("\n--- TRANSACTIONS ---");
+            int shown = account.displayTransactions(offset, pageSize);
+            if (shown == 0 && offset == 0) return;
+            boolean hasNext = offset + shown < account.getTransactionCount();
+            boolean hasPrevious = offset > 0;
+            System.out.print((hasNext ? "[n]ext, " : "") + (hasPrevious ? "[p]revious, " : "") + "[q]uit: ");
+            String input = scanner.nextLine().trim().toLowerCase();
+            if (input.startsWith("n") && hasNext) {
+                offset += pageSize;
+            } else if (input.startsWith("p") && hasPrevious) {
+                offset = Math.max(0, offset - pageSize);
+            } else if (input.startsWith("q")) {
+                return;
+            } else {
+                System.out.println("Invalid choice.");
+            }
+        }
+    }
+
+    private static void importCsv() {
+        System.out.println("\n--- IMPORT BANK STATEMENT ---");
+        System.out.print("Enter CSV file path: ");
+        String path = scanner.nextLine().trim();
+        System.out.print("Enter date format (or press Enter for yyyy-MM-dd): ");
+        String dateFormat = scanner.nextLine().trim();
+
+        try {
+            CsvImporter importer = new CsvImporter(account);
+            if (!dateFormat.isEmpty()) importer.setDateFormat(dateFormat);
+            ImportReport report = importer.importFile(path);
+            System.out.println(report);
+            // The first few rejected rows; the per-reason counts above cover the rest
+            List<ImportReport.RejectedRow> rejections = report.getRejections();
+            for (int i = 0; i < Math.min(20, rejections.size()); i++) {
+                System.out.println("  " + rejections.get(i));
+            }
+        } catch (Exception e) {
+            System.err.println("Import failed: " + e.getMessage());
+        }
+    }
+
+    private static void manageBudgets() {
+        System.out.println("\n--- BUDGETS ---");
+        account.displayBudgets();
+        System.out.print("Set a budget? (y/n): ");
+        if (!scanner.nextLine().toLowerCase().startsWith("y")) return;
+
+        System.out.print("Enter expense category: ");
+        String category = scanner.nextLine();
+        System.out.print("Period - weekly, monthly or yearly (or press Enter for monthly): ");
+        String period = scanner.nextLine().trim();
+        double limit = getDoubleInput("Enter limit: ");
+        int alertPercent = getIntInput("Alert at what % of the limit (0 for none): ");
+        System.out.print("Refuse expenses over the limit? (y/n): ");
+        boolean hard = scanner.nextLine().toLowerCase().startsWith("y");
+
+        try {
+            account.setBudget(category, period.isEmpty() ? Budget.Period.MONTHLY
+                    : Budget.Period.valueOf(period.toUpperCase()), limit, alertPercent, hard);
+            System.out.println("Budget set.");
+        } catch (Exception e) {
+            System.err.println("Failed to set budget: " + e.getMessage());
+        }
+    }
+
     private static int getIntInput(String prompt) {
         while (true) {
             try {
@@ -0,0 +1,277 @@
+package com.financetracker.managers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import com.financetracker.models.Account;
+
+/**
+ * Serves many accounts from one process. Each account lives in its own
+ * directory under the data directory (accounts/<name>/transactions.txt),
+ * is loaded the first time it is asked for, and stays cached until the
+ * estimated heap of all cached accounts exceeds the memory budget, at
+ * which point the least recently used accounts are evicted.
+ *
+ * Every add is persisted as it happens, so eviction only closes the data
+ * file. Callers should look accounts up through the registry each time
+ * rather than holding on to Account references, otherwise an evicted
+ * account and its reloaded copy could both be written to.
+ */
+public class AccountRegistry {
+    public static final String DEFAULT_DATA_DIRECTORY = "accounts";
+    public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+
+    private final File dataDirectory;
+    private final long memoryBudgetBytes;
+
+    // Access-ordered, so iteration starts at the least recently used account
+    private final LinkedHashMap<String, Account> accounts = new LinkedHashMap<>(16, 0.75f, true);
+    // Loads in progress, so concurrent callers for the same account share one load
+    private final Map<String, FutureTask<Account>> loading = new HashMap<>();
+    // Evicted accounts still being closed; a reload waits for these so it sees every write
+    private final Map<String, Account> closing = new HashMap<>();
+    // Last memory estimate of each cached account and their running sum
+    private final Map<String, Long> estimates = new HashMap<>();
+    private long usedBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public AccountRegistry() {
+        this(DEFAULT_DATA_DIRECTORY, DEFAULT_MEMORY_BUDGET);
+    }
+
+    public AccountRegistry(String dataDirectory, long memoryBudgetBytes) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.dataDirectory = new File(dataDirectory);
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.dataDirectory.mkdirs();
+    }
+
+    /** Returns the account, loading it from its own data file on first access */
+    public Account getAccount(String accountName) {
+        if (accountName == null || accountName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Account name cannot be empty");
+        }
+        FutureTask<Account> load;
+        boolean loadHere = false;
+        Account cached;
+        synchronized (this) {
+            cached = accounts.get(accountName); // also marks it most recently used
+            if (cached != null) {
+                hits++;
+            }
+        }
+        if (cached != null) {
+            updateEstimate(accountName, cached); // it may have grown since the last look
+            return cached;
+        }
+        synchronized (this) {
+            misses++;
+            load = loading.get(accountName);
+            if (load == null) {
+                load = new FutureTask<>(() -> openAccount(accountName));
+                loading.put(accountName, load);
+                loadHere = true;
+            }
+        }
+
+        // WHY outside the lock? Loading a big account must not stall lookups of the others
+        if (loadHere) {
+            load.run();
+        }
+        Account account;
+        try {
+            account = load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading account " + accountName, e);
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                loading.remove(accountName);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException("Could not load account " + accountName, cause);
+        }
+
+        if (loadHere) {
+            long bytes = account.estimateMemoryBytes();
+            List<Map.Entry<String, Account>> victims;
+            synchronized (this) {
+                loading.remove(accountName);
+                accounts.put(accountName, account);
+                estimates.put(accountName, bytes);
+                usedBytes += bytes;
+                victims = evictOverBudget(accountName);
+            }
+            // Closing drains and backs up the file, so it must not hold up lookups of other accounts
+            closeEvicted(victims);
+        }
+        return account;
+    }
+
+    // Replaces the account's estimate in the running total, if it is still cached
+    private void updateEstimate(String accountName, Account account) {
+        long bytes = account.estimateMemoryBytes();
+        synchronized (this) {
+            Long previous = estimates.get(accountName);
+            if (previous != null) {
+                estimates.put(accountName, bytes);
+                usedBytes += bytes - previous;
+            }
+        }
+    }
+
+    // Takes least recently used accounts out of the cache until it fits the budget, never the one just
+    // loaded; the caller closes them after releasing the lock
+    private List<Map.Entry<String, Account>> evictOverBudget(String keep) {
+        List<Map.Entry<String, Account>> victims = new ArrayList<>();
+        Iterator<Map.Entry<String, Account>> eldest = accounts.entrySet().iterator();
+        while (usedBytes > memoryBudgetBytes && eldest.hasNext()) {
+            Map.Entry<String, Account> entry = eldest.next();
+            if (entry.getKey().equals(keep)) continue;
+            victims.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            usedBytes -= estimates.remove(entry.getKey());
+            closing.put(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+        return victims;
+    }
+
+    // One failed close must not keep the other victims open, or leave a waiter in openAccount() blocked
+    private void closeEvicted(List<Map.Entry<String, Account>> victims) {
+        for (Map.Entry<String, Account> victim : victims) {
+            try {
+                victim.getValue().close();
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Could not close evicted account " + victim.getKey() + " - " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    closing.remove(victim.getKey());
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    private Account openAccount(String accountName) throws InterruptedException {
+        synchronized (this) {
+            while (closing.containsKey(accountName)) {
+                wait(); // the evicted copy is still writing its file
+            }
+        }
+        File directory = accountDirectory(accountName);
+        directory.mkdirs();
+        FileManager fileManager = new FileManager(new File(directory, FileManager.TRANSACTIONS_FILE).getPath());
+        return new Account(accountName, fileManager);
+    }
+
+    /** Evicts one account now, e.g. after a user logs out */
+    public void evict(String accountName) {
+        List<Map.Entry<String, Account>> victims = new ArrayList<>(1);
+        synchronized (this) {
+            Account account = accounts.remove(accountName);
+            if (account == null) return;
+            usedBytes -= estimates.remove(accountName);
+            closing.put(accountName, account);
+            victims.add(new AbstractMap.SimpleImmutableEntry<>(accountName, account));
+            evictions++;
+        }
+        closeEvicted(victims);
+    }
+
+    /** Closes every cached account */
+    public void close() {
+        List<Map.Entry<String, Account>> victims = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, Account> entry : accounts.entrySet()) {
+                victims.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+                closing.put(entry.getKey(), entry.getValue());
+            }
+            accounts.clear();
+            estimates.clear();
+            usedBytes = 0;
+        }
+        closeEvicted(victims);
+    }
+
+    public synchronized boolean isLoaded(String accountName) {
+        return accounts.containsKey(accountName);
+    }
+
+    public boolean exists(String accountName) {
+        return new File(accountDirectory(accountName), FileManager.TRANSACTIONS_FILE).exists();
+    }
+
+    /** Names of all accounts stored on disk, loaded or not */
+    public List<String> listAccountNames() {
+        List<String> names = new ArrayList<>();
+        File[] directories = dataDirectory.listFiles(File::isDirectory);
+        if (directories == null) return names;
+        for (File directory : directories) {
+            names.add(decodeName(directory.getName()));
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    public File accountDirectory(String accountName) {
+        return new File(dataDirectory, encodeName(accountName));
+    }
+
+    public synchronized int getLoadedCount() { return accounts.size(); }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public long getMemoryBudget() { return memoryBudgetBytes; }
+
+    /** Sum of the cached accounts' estimates, each as of its last load or lookup */
+    public synchronized long getEstimatedMemory() {
+        return usedBytes;
+    }
+
+    // Account names can contain anything; keep [A-Za-z0-9_-] and %-encode the rest as UTF-8 bytes
+    static String encodeName(String accountName) {
+        StringBuilder sb = new StringBuilder(accountName.length());
+        for (byte b : accountName.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-') {
+                sb.append(c);
+            } else {
+                sb.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return sb.toString();
+    }
+
+    static String decodeName(String directoryName) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(directoryName.length());
+        for (int i = 0; i < directoryName.length(); i++) {
+            char c = directoryName.charAt(i);
+            if (c == '%' && i + 2 < directoryName.length()) {
+                bytes.write(Integer.parseInt(directoryName.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                bytes.write(c);
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,433 @@
+package com.financetracker.managers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Rotating backups of the transactions file, kept in a directory next to
+ * it as numbered generations listed in manifest.txt.
+ *
+ * The file only ever grows by appends until it is rewritten as a whole, so
+ * backups come in chains. A FULL generation starts a chain: a copy of the
+ * file, with the CRC32 of all of it, taken right after a full rewrite
+ * (which costs as much as the copy anyway). Each INCREMENTAL generation
+ * after it copies only the bytes appended since the previous generation,
+ * so the backups between rewrites cost what changed, not the size of the
+ * history.
+ *
+ * Any generation can be restored by taking its chain's FULL prefix and
+ * replaying the increments up to it; every piece is checked against the
+ * CRC of its whole content first. Old chains are pruned as a whole once
+ * every generation in them is beyond the count or age limit. A file that
+ * is only ever appended to would stay in one chain for good, so once a
+ * chain holds half the allowed generations, or is half the allowed age,
+ * the next backup starts a new chain with another FULL copy.
+ *
+ * Manifests from earlier versions may list FULL generations that are hard
+ * links to the data file. They still restore, but they are the data file's
+ * own bytes: damage to the data file in place (a bad disk block, an editor
+ * saving over it) is damage to them too, and restore only checks their
+ * last 4KB, so it cannot notice damage earlier in the file. Only copies
+ * protect against that.
+ */
+public class BackupManager {
+    public static final int DEFAULT_MAX_GENERATIONS = 50;
+    public static final long DEFAULT_MAX_AGE_MILLIS = 30L * 24 * 60 * 60 * 1000;
+
+    private static final String MANIFEST = "manifest.txt";
+    private static final String MANIFEST_HEADER = "# backup manifest v1";
+    private static final int EDGE_CHECK_BYTES = 4096;
+
+    public enum Kind {
+        FULL,           // start of a chain: the file up to end
+        INCREMENTAL     // bytes start..end appended since the previous generation
+    }
+
+    /** One backup generation as recorded in the manifest */
+    public static final class Generation {
+        private final long number;
+        private final Kind kind;
+        private final long createdMillis;
+        private final String fileName;
+        private final long start;
+        private final long end;
+        private final boolean linked;   // FULL only: hard link to the data file (older manifests) rather than a copy
+        private final long endChecksum; // CRC32 of the (up to) 4KB of the data file before end
+        private final long dataChecksum; // CRC32 of the copied bytes, -1 for a linked FULL
+        private final boolean rollover; // FULL only: started to bound the chain, not after a rewrite
+
+        Generation(long number, Kind kind, long createdMillis, String fileName, long start, long end,
+                   boolean linked, long endChecksum, long dataChecksum) {
+            this(number, kind, createdMillis, fileName, start, end, linked, endChecksum, dataChecksum, false);
+        }
+
+        Generation(long number, Kind kind, long createdMillis, String fileName, long start, long end,
+                   boolean linked, long endChecksum, long dataChecksum, boolean rollover) {
+            this.number = number;
+            this.kind = kind;
+            this.createdMillis = createdMillis;
+            this.fileName = fileName;
+            this.start = start;
+            this.end = end;
+            this.linked = linked;
+            this.endChecksum = endChecksum;
+            this.dataChecksum = dataChecksum;
+            this.rollover = rollover;
+        }
+
+        public long getNumber() { return number; }
+        public Kind getKind() { return kind; }
+        public long getCreatedMillis() { return createdMillis; }
+        /** Length of the transactions file this generation restores */
+        public long getLength() { return end; }
+        /** Bytes this generation stores itself; 0 for a linked FULL */
+        public long getStoredBytes() { return kind == Kind.FULL && linked ? 0 : end - start; }
+
+        String toManifestLine() {
+            return String.join("|", Long.toString(number), kind.name(), Long.toString(createdMillis), fileName,
+                    Long.toString(start), Long.toString(end), Boolean.toString(linked),
+                    Long.toString(endChecksum), Long.toString(dataChecksum), Boolean.toString(rollover));
+        }
+
+        // Manifests written before rollovers existed have no tenth field
+        static Generation fromManifestLine(String line) {
+            String[] parts = line.split("\\|");
+            if (parts.length != 9 && parts.length != 10) throw new IllegalArgumentException("Invalid manifest line");
+            return new Generation(Long.parseLong(parts[0]), Kind.valueOf(parts[1]), Long.parseLong(parts[2]),
+                    parts[3], Long.parseLong(parts[4]), Long.parseLong(parts[5]), Boolean.parseBoolean(parts[6]),
+                    Long.parseLong(parts[7]), Long.parseLong(parts[8]),
+                    parts.length == 10 && Boolean.parseBoolean(parts[9]));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("#%d %s %tF %<tT, %d bytes", number, kind, createdMillis, end);
+        }
+    }
+
+    private final Path dataFile;
+    private final Path directory;
+    private final List<Generation> generations = new ArrayList<>(); // oldest first
+    private boolean loaded;
+    private int maxGenerations = DEFAULT_MAX_GENERATIONS;
+    private long maxAgeMillis = DEFAULT_MAX_AGE_MILLIS;
+
+    public BackupManager(String dataFile, String directory) {
+        this.dataFile = Paths.get(dataFile);
+        this.directory = Paths.get(directory);
+    }
+
+    public String getDirectory() { return directory.toString(); }
+
+    /** Chains are pruned once all their generations are outside the newest maxGenerations or older than maxAgeMillis */
+    public synchronized void setRetention(int maxGenerations, long maxAgeMillis) {
+        if (maxGenerations < 1 || maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("Retention must keep at least one generation for a positive time");
+        }
+        this.maxGenerations = maxGenerations;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /** Generations oldest first */
+    public synchronized List<Generation> getGenerations() throws IOException {
+        load();
+        return Collections.unmodifiableList(new ArrayList<>(generations));
+    }
+
+    public synchronized Generation newest() throws IOException {
+        load();
+        return generations.isEmpty() ? null : generations.get(generations.size() - 1);
+    }
+
+    public synchronized Generation find(long number) throws IOException {
+        load();
+        for (Generation g : generations) {
+            if (g.number == number) return g;
+        }
+        return null;
+    }
+
+    /**
+     * The file as it was just before the last full rewrite: the newest
+     * generation of the chain before the current one, or the newest
+     * generation if there is only one chain.
+     */
+    public synchronized Generation beforeLastRewrite() throws IOException {
+        load();
+        for (int i = generations.size() - 1; i > 0; i--) {
+            Generation g = generations.get(i);
+            if (g.kind == Kind.FULL && !g.rollover) return generations.get(i - 1);
+        }
+        return newest();
+    }
+
+    /** Newest generation taken at or before epochMillis, or null */
+    public synchronized Generation latestAt(long epochMillis) throws IOException {
+        load();
+        Generation found = null;
+        for (Generation g : generations) {
+            if (g.createdMillis <= epochMillis) found = g;
+        }
+        return found;
+    }
+
+    /**
+     * Backs up what was appended since the newest generation, or starts a
+     * new chain if the data file is no longer the one that chain covers.
+     * Returns the new generation, or null if nothing changed.
+     */
+    public synchronized Generation backup() throws IOException {
+        load();
+        if (!Files.exists(dataFile)) return null;
+        long length = Files.size(dataFile);
+        Generation last = newest();
+        if (last != null && continuesChain(last, length)) {
+            if (length == last.end) return null;
+            return chainFull() ? addFull(length, true) : addIncremental(last, length);
+        }
+        return length == 0 ? null : addFull(length, false);
+    }
+
+    // The newest chain is as long or as old as a chain may get before prune() could ever drop it
+    private boolean chainFull() {
+        int start = generations.size() - 1;
+        while (start > 0 && generations.get(start).kind != Kind.FULL) start--;
+        int size = generations.size() - start;
+        long age = System.currentTimeMillis() - generations.get(start).createdMillis;
+        return size >= Math.max(1, maxGenerations / 2) || age >= maxAgeMillis / 2;
+    }
+
+    /** Starts a new chain; called right after the data file was rewritten */
+    public synchronized Generation backupFull() throws IOException {
+        load();
+        if (!Files.exists(dataFile)) return null;
+        return addFull(Files.size(dataFile), false);
+    }
+
+    /**
+     * Writes the transactions file as it was at generation target to out:
+     * its chain's FULL prefix followed by each increment up to target.
+     * Every piece is checked against the manifest first.
+     */
+    public synchronized void restore(Generation target, Path out) throws IOException {
+        load();
+        int last = generations.indexOf(target);
+        if (last < 0) throw new IOException("Unknown backup generation " + target.number);
+        int first = last;
+        while (generations.get(first).kind != Kind.FULL) {
+            if (--first < 0) throw new IOException("Backup generation " + target.number + " has no full backup");
+        }
+
+        try (FileChannel output = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long expected = 0;
+            for (int i = first; i <= last; i++) {
+                Generation g = generations.get(i);
+                Path file = directory.resolve(g.fileName);
+                if (g.start != expected) {
+                    throw new IOException("Backup generation " + g.number + " does not follow the previous one");
+                }
+                if (g.kind == Kind.FULL && tailChecksum(file, g.end) != g.endChecksum) {
+                    throw new IOException("Full backup " + g.number + " was modified or is damaged");
+                }
+                long crc = copyRange(file, 0, g.end - g.start, output);
+                if (g.dataChecksum != -1 && crc != g.dataChecksum) {
+                    throw new IOException((g.kind == Kind.FULL ? "Full" : "Incremental")
+                            + " backup " + g.number + " is damaged");
+                }
+                expected = g.end;
+            }
+            output.force(true);
+        }
+    }
+
+    /** Removes every generation and the manifest */
+    public synchronized void deleteAll() throws IOException {
+        load();
+        for (Generation g : generations) {
+            Files.deleteIfExists(directory.resolve(g.fileName));
+        }
+        generations.clear();
+        Files.deleteIfExists(directory.resolve(MANIFEST));
+        Files.deleteIfExists(directory.resolve(MANIFEST + ".tmp"));
+        try {
+            Files.deleteIfExists(directory);
+        } catch (DirectoryNotEmptyException e) {
+            // someone else's files in there; leave them
+        }
+    }
+
+    // The live file is still the newest chain's file grown by appends
+    private boolean continuesChain(Generation last, long length) throws IOException {
+        if (length < last.end) return false;
+        Generation full = chainStart(generations.size() - 1);
+        if (full == null) return false;
+        if (full.linked) {
+            Path link = directory.resolve(full.fileName);
+            if (!Files.exists(link) || !Files.isSameFile(link, dataFile)) return false;
+        }
+        return tailChecksum(dataFile, last.end) == last.endChecksum;
+    }
+
+    private Generation chainStart(int index) {
+        for (int i = index; i >= 0; i--) {
+            if (generations.get(i).kind == Kind.FULL) return generations.get(i);
+        }
+        return null;
+    }
+
+    // WHY a copy and not a hard link? A link shares the data file's blocks, so damage to the live
+    // file would also be damage to every backup in its chain
+    private Generation addFull(long length, boolean rollover) throws IOException {
+        Files.createDirectories(directory);
+        long number = nextNumber();
+        String name = String.format("gen-%06d.full", number);
+        Path target = directory.resolve(name);
+        Files.deleteIfExists(target);
+        long crc;
+        try (FileChannel output = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            crc = copyRange(dataFile, 0, length, output);
+            output.force(true);
+        }
+        Generation g = new Generation(number, Kind.FULL, System.currentTimeMillis(), name, 0, length, false,
+                tailChecksum(dataFile, length), crc, rollover);
+        commit(g);
+        return g;
+    }
+
+    private Generation addIncremental(Generation last, long length) throws IOException {
+        Files.createDirectories(directory);
+        long number = nextNumber();
+        String name = String.format("gen-%06d.incr", number);
+        Path target = directory.resolve(name);
+        long crc;
+        try (FileChannel output = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            crc = copyRange(dataFile, last.end, length - last.end, output);
+            output.force(true);
+        }
+        Generation g = new Generation(number, Kind.INCREMENTAL, System.currentTimeMillis(), name, last.end, length,
+                false, tailChecksum(dataFile, length), crc);
+        commit(g);
+        return g;
+    }
+
+    private long nextNumber() {
+        return generations.isEmpty() ? 1 : generations.get(generations.size() - 1).number + 1;
+    }
+
+    private void commit(Generation g) throws IOException {
+        generations.add(g);
+        prune();
+        writeManifest();
+    }
+
+    // Drops whole chains whose every generation has expired; the newest chain always stays
+    private void prune() throws IOException {
+        long oldestKept = System.currentTimeMillis() - maxAgeMillis;
+        int firstByCount = generations.size() - maxGenerations;
+        int chainEnd = -1; // index of the last generation of the oldest chain
+        while (true) {
+            int start = chainEnd + 1;
+            int end = start;
+            while (end + 1 < generations.size() && generations.get(end + 1).kind != Kind.FULL) end++;
+            if (end + 1 >= generations.size()) break; // newest chain
+            Generation newestInChain = generations.get(end);
+            boolean expired = end < firstByCount || newestInChain.createdMillis < oldestKept;
+            if (!expired) break;
+            chainEnd = end;
+        }
+        for (int i = 0; i <= chainEnd; i++) {
+            Files.deleteIfExists(directory.resolve(generations.get(i).fileName));
+        }
+        generations.subList(0, chainEnd + 1).clear();
+    }
+
+    private void load() throws IOException {
+        if (loaded) return;
+        Path manifest = directory.resolve(MANIFEST);
+        if (Files.exists(manifest)) {
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                try {
+                    generations.add(Generation.fromManifestLine(line));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Warning: Skipping invalid backup manifest line: " + line);
+                }
+            }
+        }
+        loaded = true;
+    }
+
+    private void writeManifest() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        Path temp = directory.resolve(MANIFEST + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(MANIFEST_HEADER);
+            writer.newLine();
+            for (Generation g : generations) {
+                writer.write(g.toManifestLine());
+                writer.newLine();
+            }
+        }
+        try {
+            Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Copies length bytes from offset of source to the end of output; returns their CRC32
+    private static long copyRange(Path source, long offset, long length, FileChannel output) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (input.size() < offset + length) throw new IOException("Backup source is shorter than expected: " + source);
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long position = offset;
+            long remaining = length;
+            while (remaining > 0) {
+                buffer.clear();
+                if (remaining < buffer.capacity()) buffer.limit((int) remaining);
+                int read = input.read(buffer, position);
+                if (read < 0) throw new IOException("Unexpected end of " + source);
+                buffer.flip();
+                crc.update(buffer.array(), 0, read);
+                while (buffer.hasRemaining()) output.write(buffer);
+                position += read;
+                remaining -= read;
+            }
+        }
+        return crc.getValue();
+    }
+
+    // CRC32 of the (up to) 4KB before offset, or -1 if the file is shorter
+    private static long tailChecksum(Path file, long offset) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < offset) return -1;
+        int length = (int) Math.min(offset, EDGE_CHECK_BYTES);
+        CRC32 crc = new CRC32();
+        if (length > 0) {
+            byte[] bytes = new byte[length];
+            try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+                in.seek(offset - length);
+                in.readFully(bytes);
+            }
+            crc.update(bytes, 0, length);
+        }
+        return crc.getValue();
+    }
+}
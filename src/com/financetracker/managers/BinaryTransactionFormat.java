@@ -0,0 +1,471 @@
+package com.financetracker.managers;
+
+import com.financetracker.models.Expense;
+import com.financetracker.models.Income;
+import com.financetracker.models.Money;
+import com.financetracker.models.StringDictionary;
+import com.financetracker.models.Transaction;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary storage format for transactions.
+ *
+ * Layout: 4-byte magic "FTBX", 1-byte version, then a sequence of entries,
+ * each prefixed with its length as a varint. The first payload byte is the
+ * entry kind:
+ *   DICTIONARY  varint code, UTF-8 string (categories, sources, payment methods)
+ *   TRANSACTION flags, varint id, zigzag epoch day, varint amount in cents,
+ *               varint category code, varint source/payment code,
+ *               varint length + UTF-8 description
+ * A full save writes every dictionary entry first; appends add new
+ * dictionary entries right before the record that needs them. Unknown
+ * entry kinds are skipped, so later versions can add entries.
+ */
+public final class BinaryTransactionFormat {
+    static final int MAGIC = 0x46544258; // "FTBX"
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 5;
+
+    private static final byte KIND_DICTIONARY = 1;
+    private static final byte KIND_TRANSACTION = 2;
+    private static final int FLAG_EXPENSE = 1;
+    private static final int FLAG_ESSENTIAL = 2;
+
+    private BinaryTransactionFormat() {}
+
+    /** True if the file starts with the binary format's magic number */
+    public static boolean isBinary(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < 4) return false;
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] magic = new byte[4];
+            int read = 0;
+            while (read < 4) {
+                int n = in.read(magic, read, 4 - read);
+                if (n < 0) return false;
+                read += n;
+            }
+            return readInt(magic, 0) == MAGIC;
+        }
+    }
+
+    // Result of reading a binary file
+    static class ReadResult {
+        final List<Transaction> transactions = new ArrayList<>();
+        final StringDictionary dictionary = new StringDictionary();
+        final List<String> problems = new ArrayList<>();
+        long validLength; // end of the last complete entry; anything after it is a torn append
+    }
+
+    /** Writes header, dictionary section and all records; fills dictionary */
+    static void write(OutputStream out, List<Transaction> transactions, StringDictionary dictionary) throws IOException {
+        ByteSink sink = new ByteSink(64 * 1024);
+        sink.writeInt(MAGIC);
+        sink.writeByte(VERSION);
+
+        // Dictionary section first so readers can decode every record they meet
+        for (Transaction t : transactions) {
+            encodeStrings(sink, t, dictionary);
+            if (sink.size() >= 32 * 1024) sink.drainTo(out);
+        }
+        for (Transaction t : transactions) {
+            encodeRecord(sink, t, dictionary);
+            if (sink.size() >= 32 * 1024) sink.drainTo(out);
+        }
+        sink.drainTo(out);
+    }
+
+    /**
+     * Encodes one transaction for appending, preceded by any dictionary
+     * entries it needs (and by the file header if the file is new).
+     */
+    static byte[] encodeAppend(Transaction t, StringDictionary dictionary, boolean withHeader) {
+        ByteSink sink = new ByteSink(128);
+        if (withHeader) {
+            sink.writeInt(MAGIC);
+            sink.writeByte(VERSION);
+        }
+        encodeStrings(sink, t, dictionary);
+        encodeRecord(sink, t, dictionary);
+        return sink.toByteArray();
+    }
+
+    static ReadResult read(InputStream in) throws IOException {
+        return read(in, 0);
+    }
+
+    /**
+     * Reads the whole file but only returns the records stored at or after
+     * fromOffset (dictionary entries are always read, since later records
+     * can refer to any of them). Used to replay the tail after a snapshot.
+     */
+    static ReadResult read(InputStream in, long fromOffset) throws IOException {
+        ReadResult result = new ReadResult();
+        ByteSource source = new ByteSource(in);
+        readHeader(source);
+        result.validLength = source.position();
+
+        int recordNo = 0;
+        while (true) {
+            byte[] payload;
+            long entryStart = source.position();
+            try {
+                if (!source.hasMore()) break;
+                int length = source.readVarInt();
+                if (entryStart < fromOffset && length > 0 && source.peekByte() != KIND_DICTIONARY) {
+                    source.skip(length);
+                    result.validLength = source.position();
+                    continue;
+                }
+                payload = source.readBytes(length);
+            } catch (EOFException e) {
+                result.problems.add("Truncated entry at end of file ignored");
+                break;
+            }
+            result.validLength = source.position();
+
+            if (payload.length == 0) continue;
+            if (payload[0] == KIND_DICTIONARY) {
+                readDictionaryEntry(payload, result.dictionary);
+            } else if (payload[0] == KIND_TRANSACTION) {
+                recordNo++;
+                try {
+                    result.transactions.add(decodeRecord(payload, result.dictionary));
+                } catch (RuntimeException e) {
+                    result.problems.add("Skipping invalid record #" + recordNo + ": " + e.getMessage());
+                }
+            }
+            // other kinds are from newer versions and are skipped
+        }
+        return result;
+    }
+
+    /** Reads only the dictionary entries (and the valid length), skipping over the records */
+    static ReadResult readDictionary(InputStream in) throws IOException {
+        ReadResult result = new ReadResult();
+        ByteSource source = new ByteSource(in);
+        readHeader(source);
+        result.validLength = source.position();
+        try {
+            while (source.hasMore()) {
+                int length = source.readVarInt();
+                if (length > 0 && source.peekByte() == KIND_DICTIONARY) {
+                    readDictionaryEntry(source.readBytes(length), result.dictionary);
+                } else {
+                    source.skip(length);
+                }
+                result.validLength = source.position();
+            }
+        } catch (EOFException e) {
+            // truncated tail, keep what was read
+        }
+        return result;
+    }
+
+    /**
+     * Sequential reader returning one record at a time, for streaming.
+     * Only the dictionary is kept in memory; records rejected by the
+     * filter are skipped before their strings are decoded.
+     */
+    static final class Reader {
+        private final ByteSource source;
+        private final StringDictionary dictionary = new StringDictionary();
+        private int recordNo;
+
+        Reader(InputStream in) throws IOException {
+            source = new ByteSource(in);
+            readHeader(source);
+        }
+
+        /** Next record accepted by filter, or null at the end of the file */
+        Transaction next(TransactionFilter filter) throws IOException {
+            while (true) {
+                byte[] payload;
+                try {
+                    if (!source.hasMore()) return null;
+                    payload = source.readBytes(source.readVarInt());
+                } catch (EOFException e) {
+                    System.err.println("Truncated entry at end of file ignored");
+                    return null;
+                }
+                if (payload.length == 0) continue;
+                if (payload[0] == KIND_DICTIONARY) {
+                    readDictionaryEntry(payload, dictionary);
+                } else if (payload[0] == KIND_TRANSACTION) {
+                    recordNo++;
+                    try {
+                        if (!accepts(payload, filter)) continue;
+                        return decodeRecord(payload, dictionary);
+                    } catch (RuntimeException e) {
+                        System.err.println("Skipping invalid record #" + recordNo + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        private static boolean accepts(byte[] payload, TransactionFilter filter) {
+            int[] pos = { 1 };
+            int flags = payload[pos[0]++];
+            readVarInt(payload, pos); // id
+            int epochDay = unZigZag(readVarInt(payload, pos));
+            return filter.matches((flags & FLAG_EXPENSE) != 0, epochDay);
+        }
+    }
+
+    private static void readHeader(ByteSource source) throws IOException {
+        byte[] header = source.readBytes(HEADER_SIZE);
+        if (readInt(header, 0) != MAGIC) {
+            throw new IOException("Not a binary transactions file");
+        }
+        if (header[4] > VERSION) {
+            throw new IOException("Unsupported binary format version " + header[4]);
+        }
+    }
+
+    private static void readDictionaryEntry(byte[] payload, StringDictionary dictionary) throws IOException {
+        int[] pos = { 1 };
+        int code = readVarInt(payload, pos);
+        String value = new String(payload, pos[0], payload.length - pos[0], StandardCharsets.UTF_8);
+        if (code != dictionary.size()) {
+            throw new IOException("Corrupt dictionary: expected code " + dictionary.size() + " but found " + code);
+        }
+        dictionary.encode(value);
+    }
+
+    private static void encodeStrings(ByteSink sink, Transaction t, StringDictionary dictionary) {
+        encodeString(sink, t.getCategory(), dictionary);
+        encodeString(sink, extraString(t), dictionary);
+    }
+
+    private static void encodeString(ByteSink sink, String value, StringDictionary dictionary) {
+        if (dictionary.lookup(value) != StringDictionary.NO_CODE) return;
+        int code = dictionary.encode(value);
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        sink.writeVarInt(1 + varIntSize(code) + utf8.length);
+        sink.writeByte(KIND_DICTIONARY);
+        sink.writeVarInt(code);
+        sink.writeBytes(utf8);
+    }
+
+    private static void encodeRecord(ByteSink sink, Transaction t, StringDictionary dictionary) {
+        int flags = 0;
+        if (t instanceof Expense) {
+            flags |= FLAG_EXPENSE;
+            if (((Expense) t).isEssential()) flags |= FLAG_ESSENTIAL;
+        }
+        int id = zigZag(t.getId());
+        int day = zigZag((int) t.getDate().toEpochDay());
+        long cents = Money.toCents(t.getAmount());
+        int category = dictionary.lookup(t.getCategory());
+        int extra = dictionary.lookup(extraString(t));
+        byte[] description = t.getDescription().getBytes(StandardCharsets.UTF_8);
+
+        int length = 2 + varIntSize(id) + varIntSize(day) + varLongSize(cents)
+                + varIntSize(category) + varIntSize(extra)
+                + varIntSize(description.length) + description.length;
+        sink.writeVarInt(length);
+        sink.writeByte(KIND_TRANSACTION);
+        sink.writeByte(flags);
+        sink.writeVarInt(id);
+        sink.writeVarInt(day);
+        sink.writeVarLong(cents);
+        sink.writeVarInt(category);
+        sink.writeVarInt(extra);
+        sink.writeVarInt(description.length);
+        sink.writeBytes(description);
+    }
+
+    private static Transaction decodeRecord(byte[] payload, StringDictionary dictionary) {
+        int[] pos = { 1 };
+        int flags = payload[pos[0]++];
+        int id = unZigZag(readVarInt(payload, pos));
+        LocalDate date = LocalDate.ofEpochDay(unZigZag(readVarInt(payload, pos)));
+        double amount = Money.fromCents(readVarLong(payload, pos));
+        String category = dictionary.decode(readVarInt(payload, pos));
+        String extra = dictionary.decode(readVarInt(payload, pos));
+        int descriptionLength = readVarInt(payload, pos);
+        if (pos[0] + descriptionLength > payload.length) {
+            throw new IllegalArgumentException("Description runs past end of record");
+        }
+        String description = new String(payload, pos[0], descriptionLength, StandardCharsets.UTF_8);
+
+        if ((flags & FLAG_EXPENSE) != 0) {
+            return new Expense(id, amount, description, category, date, (flags & FLAG_ESSENTIAL) != 0, extra);
+        }
+        return new Income(id, amount, description, category, date, extra);
+    }
+
+    private static String extraString(Transaction t) {
+        return t instanceof Income ? ((Income) t).getSource() : ((Expense) t).getPaymentMethod();
+    }
+
+    // Varint helpers (7 bits per byte, little-endian groups)
+
+    private static int zigZag(int value) { return (value << 1) ^ (value >> 31); }
+    private static int unZigZag(int value) { return (value >>> 1) ^ -(value & 1); }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) { value >>>= 7; size++; }
+        return size;
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) { value >>>= 7; size++; }
+        return size;
+    }
+
+    private static int readVarInt(byte[] buf, int[] pos) {
+        return (int) readVarLong(buf, pos);
+    }
+
+    private static long readVarLong(byte[] buf, int[] pos) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos[0] >= buf.length) throw new IllegalArgumentException("Record ends inside a number");
+            byte b = buf[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed number");
+    }
+
+    private static int readInt(byte[] buf, int offset) {
+        return ((buf[offset] & 0xFF) << 24) | ((buf[offset + 1] & 0xFF) << 16)
+                | ((buf[offset + 2] & 0xFF) << 8) | (buf[offset + 3] & 0xFF);
+    }
+
+    // Growable output buffer
+    private static class ByteSink {
+        private byte[] buf;
+        private int size;
+
+        ByteSink(int capacity) { buf = new byte[capacity]; }
+
+        int size() { return size; }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[size++] = (byte) b;
+        }
+
+        void writeInt(int v) {
+            writeByte(v >>> 24);
+            writeByte(v >>> 16);
+            writeByte(v >>> 8);
+            writeByte(v);
+        }
+
+        void writeVarInt(int v) {
+            writeVarLong(v & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[size++] = (byte) v;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void drainTo(OutputStream out) throws IOException {
+            out.write(buf, 0, size);
+            size = 0;
+        }
+
+        byte[] toByteArray() { return Arrays.copyOf(buf, size); }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+        }
+    }
+
+    // Buffered input with varint and block reads
+    private static class ByteSource {
+        private final InputStream in;
+        private final byte[] buf = new byte[64 * 1024];
+        private int pos;
+        private int limit;
+        private long base; // stream offset of buf[0]
+
+        ByteSource(InputStream in) { this.in = in; }
+
+        long position() {
+            return base + pos;
+        }
+
+        boolean hasMore() throws IOException {
+            return pos < limit || fill();
+        }
+
+        int peekByte() throws IOException {
+            if (!hasMore()) throw new EOFException();
+            return buf[pos];
+        }
+
+        int readByte() throws IOException {
+            if (!hasMore()) throw new EOFException();
+            return buf[pos++];
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed entry length");
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            if (length < 0) throw new IOException("Negative entry length");
+            byte[] out = new byte[length];
+            int copied = 0;
+            while (copied < length) {
+                if (!hasMore()) throw new EOFException();
+                int n = Math.min(length - copied, limit - pos);
+                System.arraycopy(buf, pos, out, copied, n);
+                pos += n;
+                copied += n;
+            }
+            return out;
+        }
+
+        void skip(int length) throws IOException {
+            while (length > 0) {
+                if (!hasMore()) throw new EOFException();
+                int n = Math.min(length, limit - pos);
+                pos += n;
+                length -= n;
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int n = in.read(buf, 0, buf.length);
+            if (n <= 0) return false;
+            base += limit;
+            pos = 0;
+            limit = n;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.financetracker.managers;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.financetracker.exceptions.BudgetExceededException;
+import com.financetracker.models.Budget;
+import com.financetracker.models.Money;
+
+/**
+ * The budgets of one account, persisted next to its transactions file,
+ * and the running spend of each budget's current period. Checking and
+ * counting an expense is O(1): one map lookup by category, then a compare
+ * and an add for each budget of that category (at most one per period).
+ *
+ * Categories match ignoring case and surrounding spaces, like category
+ * filters elsewhere, so "food " spends against a "Food" budget.
+ *
+ * A counter starts again from zero as soon as the calendar is in a new
+ * period. Expenses dated outside a budget's current period are neither
+ * counted nor limited. Counters are not stored; Account rebuilds them in
+ * one pass over the current periods' expenses when it loads its history.
+ * A rebuild only recounts stored expenses: amounts reserved by expenses
+ * still being added are kept apart until commit() or release().
+ */
+public class BudgetManager {
+    private final String budgetsFile;
+    private final Clock clock;
+    private final Map<String, List<Tracker>> byCategory = new HashMap<>(); // keyed by key(category)
+
+    // A budget and what has been spent in its current period
+    private static final class Tracker {
+        final Budget budget;
+        int periodKey = Integer.MIN_VALUE;
+        long spentCents;    // stored expenses
+        long reservedCents; // expenses reserved but not yet stored
+
+        Tracker(Budget budget) {
+            this.budget = budget;
+        }
+    }
+
+    public BudgetManager(String budgetsFile) {
+        this(budgetsFile, Clock.systemDefaultZone());
+    }
+
+    // The clock decides which period is current
+    public BudgetManager(String budgetsFile, Clock clock) {
+        if (budgetsFile == null || budgetsFile.trim().isEmpty()) {
+            throw new IllegalArgumentException("Budgets file name cannot be empty");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.budgetsFile = budgetsFile;
+        this.clock = clock;
+        loadBudgets();
+    }
+
+    /**
+     * Adds the budget, replacing any budget for the same category and
+     * period. Its counter starts at zero; Account.setBudget() also counts
+     * what was already spent in the current period.
+     */
+    public synchronized void setBudget(Budget budget) {
+        if (budget == null) throw new IllegalArgumentException("Budget cannot be null");
+        List<Tracker> trackers = byCategory.computeIfAbsent(key(budget.getCategory()), c -> new ArrayList<>(1));
+        Tracker replaced = null;
+        for (Tracker t : trackers) {
+            if (t.budget.equals(budget)) replaced = t;
+        }
+        trackers.remove(replaced);
+        Tracker tracker = new Tracker(budget);
+        if (replaced != null) tracker.reservedCents = replaced.reservedCents; // still in flight
+        trackers.add(tracker);
+        saveBudgets();
+    }
+
+    public synchronized boolean removeBudget(String category, Budget.Period period) {
+        List<Tracker> trackers = byCategory.get(key(category));
+        if (trackers == null || !trackers.removeIf(t -> t.budget.getPeriod() == period)) return false;
+        if (trackers.isEmpty()) byCategory.remove(key(category));
+        saveBudgets();
+        return true;
+    }
+
+    public synchronized List<Budget> getBudgets() {
+        List<Budget> budgets = new ArrayList<>();
+        for (List<Tracker> trackers : byCategory.values()) {
+            for (Tracker t : trackers) budgets.add(t.budget);
+        }
+        budgets.sort(Comparator.comparing(Budget::getCategory).thenComparing(Budget::getPeriod));
+        return budgets;
+    }
+
+    public synchronized boolean hasBudgets() {
+        return !byCategory.isEmpty();
+    }
+
+    /** Stored spend in the current period of the budget for category and period, or 0 if there is none */
+    public synchronized long getSpentCents(String category, Budget.Period period) {
+        Tracker t = find(category, period);
+        if (t == null) return 0;
+        roll(t, LocalDate.now(clock));
+        return t.spentCents;
+    }
+
+    /**
+     * Reserves an expense against the budgets of its category. Throws if a
+     * hard budget would go over its limit, in which case nothing is
+     * reserved; otherwise returns the alerts it raised (usually none). If
+     * the expense is not added after all, give the amount back with release().
+     */
+    public synchronized List<String> reserve(String category, LocalDate date, long cents) throws BudgetExceededException {
+        List<Tracker> trackers = byCategory.get(key(category));
+        if (trackers == null) return Collections.emptyList();
+        LocalDate today = LocalDate.now(clock);
+        for (Tracker t : trackers) {
+            if (!inCurrentPeriod(t, date, today) || !t.budget.isHard()) continue;
+            long limit = t.budget.getLimitCents();
+            long committed = t.spentCents + t.reservedCents;
+            if (committed + cents > limit) {
+                throw new BudgetExceededException(String.format(Locale.US,
+                        "Expense exceeds the %s budget for %s: %.2f of %.2f left",
+                        t.budget.getPeriod().name().toLowerCase(), t.budget.getCategory(),
+                        Money.fromCents(Math.max(0, limit - committed)), Money.fromCents(limit)),
+                        t.budget.getCategory(), Money.fromCents(cents), Money.fromCents(limit),
+                        Money.fromCents(Math.max(0, limit - committed)));
+            }
+        }
+        List<String> alerts = Collections.emptyList();
+        for (Tracker t : trackers) {
+            if (!inCurrentPeriod(t, date, today)) continue;
+            long before = t.spentCents + t.reservedCents;
+            t.reservedCents += cents;
+            String alert = alert(t, before);
+            if (alert != null) {
+                if (alerts.isEmpty()) alerts = new ArrayList<>(1);
+                alerts.add(alert);
+            }
+        }
+        return alerts;
+    }
+
+    /** Gives back an amount reserved for an expense that was not added */
+    public synchronized void release(String category, LocalDate date, long cents) {
+        List<Tracker> trackers = byCategory.get(key(category));
+        if (trackers == null) return;
+        LocalDate today = LocalDate.now(clock);
+        for (Tracker t : trackers) {
+            if (inCurrentPeriod(t, date, today)) t.reservedCents = Math.max(0, t.reservedCents - cents);
+        }
+    }
+
+    /**
+     * Turns a reservation into stored spend; call in the same critical
+     * section that stores the expense, so a rebuild sees one or the other
+     */
+    public synchronized void commit(String category, LocalDate date, long cents) {
+        List<Tracker> trackers = byCategory.get(key(category));
+        if (trackers == null) return;
+        LocalDate today = LocalDate.now(clock);
+        for (Tracker t : trackers) {
+            if (!inCurrentPeriod(t, date, today)) continue;
+            t.reservedCents = Math.max(0, t.reservedCents - cents);
+            t.spentCents += cents;
+        }
+    }
+
+    /** Counts an expense without checking it, e.g. imported history or a rebuild */
+    public synchronized void record(String category, LocalDate date, long cents) {
+        List<Tracker> trackers = byCategory.get(key(category));
+        if (trackers == null) return;
+        LocalDate today = LocalDate.now(clock);
+        for (Tracker t : trackers) {
+            if (inCurrentPeriod(t, date, today)) t.spentCents += cents;
+        }
+    }
+
+    /** Zeroes the stored spend, before the history is counted again with record(); reservations stay */
+    public synchronized void resetCounters() {
+        LocalDate today = LocalDate.now(clock);
+        for (List<Tracker> trackers : byCategory.values()) {
+            for (Tracker t : trackers) {
+                roll(t, today);
+                t.spentCents = 0;
+            }
+        }
+    }
+
+    /** First day of the longest current period, or null without budgets; a rebuild only needs expenses from here on */
+    public synchronized LocalDate getCountingStart() {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate start = null;
+        for (List<Tracker> trackers : byCategory.values()) {
+            for (Tracker t : trackers) {
+                LocalDate periodStart = t.budget.getPeriod().start(today);
+                if (start == null || periodStart.isBefore(start)) start = periodStart;
+            }
+        }
+        return start;
+    }
+
+    public synchronized void displayBudgets() {
+        if (byCategory.isEmpty()) {
+            System.out.println("No budgets set.");
+            return;
+        }
+        System.out.println("\n=== BUDGETS (current period) ===");
+        LocalDate today = LocalDate.now(clock);
+        for (Budget budget : getBudgets()) {
+            Tracker t = find(budget.getCategory(), budget.getPeriod());
+            roll(t, today);
+            long limit = budget.getLimitCents();
+            System.out.printf(Locale.US, "%-20s %-8s %10.2f of %10.2f (%3d%%) %s%n", budget.getCategory(),
+                    budget.getPeriod().name().toLowerCase(), Money.fromCents(t.spentCents), Money.fromCents(limit),
+                    t.spentCents * 100 / limit, budget.isHard() ? "hard" : "soft");
+        }
+    }
+
+    // Counts toward t only if date falls in its current period; rolls t over first if the calendar moved on
+    private boolean inCurrentPeriod(Tracker t, LocalDate date, LocalDate today) {
+        roll(t, today);
+        return t.budget.getPeriod().key(date) == t.periodKey;
+    }
+
+    private void roll(Tracker t, LocalDate today) {
+        int key = t.budget.getPeriod().key(today);
+        if (key != t.periodKey) {
+            t.periodKey = key;
+            t.spentCents = 0;
+            t.reservedCents = 0;
+        }
+    }
+
+    // Alert for the spend going from before to its current total, if it crossed the warning level or the limit
+    private static String alert(Tracker t, long before) {
+        Budget budget = t.budget;
+        long limit = budget.getLimitCents();
+        long after = t.spentCents + t.reservedCents;
+        String period = budget.getPeriod().name().toLowerCase();
+        if (before <= limit && after > limit) {
+            return String.format(Locale.US, "Over budget: %s spending is %.2f, %s limit %.2f",
+                    budget.getCategory(), Money.fromCents(after), period, Money.fromCents(limit));
+        }
+        long alertAt = budget.getAlertCents();
+        if (before < alertAt && after >= alertAt && after <= limit) {
+            return String.format(Locale.US, "Budget alert: %s has used %d%% of its %s limit (%.2f of %.2f)",
+                    budget.getCategory(), after * 100 / limit, period,
+                    Money.fromCents(after), Money.fromCents(limit));
+        }
+        return null;
+    }
+
+    // Budgets match categories ignoring case and surrounding spaces
+    private static String key(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Tracker find(String category, Budget.Period period) {
+        List<Tracker> trackers = byCategory.get(key(category));
+        if (trackers == null) return null;
+        for (Tracker t : trackers) {
+            if (t.budget.getPeriod() == period) return t;
+        }
+        return null;
+    }
+
+    // File operations
+    // Bad lines are skipped with a warning
+    private void loadBudgets() {
+        File file = new File(budgetsFile);
+        if (!file.exists()) return;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.trim().isEmpty()) continue;
+                try {
+                    Budget budget = Budget.fromFileFormat(line);
+                    List<Tracker> trackers = byCategory.computeIfAbsent(key(budget.getCategory()), c -> new ArrayList<>(1));
+                    trackers.removeIf(t -> t.budget.equals(budget));
+                    trackers.add(new Tracker(budget));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping invalid budget (line " + lineNo + "): " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not load budgets - " + e.getMessage());
+        }
+    }
+
+    // Written to a temporary file first and moved into place, like the transactions file
+    private void saveBudgets() {
+        File temp = new File(budgetsFile + ".tmp");
+        try {
+            try (PrintWriter writer = new PrintWriter(new FileWriter(temp))) {
+                for (Budget budget : getBudgets()) {
+                    writer.println(budget.toFileFormat());
+                }
+                if (writer.checkError()) throw new IOException("Write failed");
+            }
+            try {
+                Files.move(temp.toPath(), new File(budgetsFile).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), new File(budgetsFile).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            System.err.println("Warning: Could not save budgets - " + e.getMessage());
+        }
+    }
+}
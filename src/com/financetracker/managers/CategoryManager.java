@@ -1,5 +1,14 @@
 package com.financetracker.managers;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -7,91 +16,264 @@ import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.financetracker.exceptions.InvalidTransactionException;
 import com.financetracker.models.Category;
 
+/**
+ * Default and custom categories, each with a stable integer id: 1-13 for
+ * the built-in defaults (in the order below, never renumbered) and 100 up
+ * for custom ones, persisted in categories.txt. Ids are never reused, so a
+ * transactions file that refers to categories as "#id" stays readable.
+ * A removed custom category is kept as a tombstone: getCategory(int) and
+ * resolveReference still know its name, but it is gone from the listings
+ * and lookups by name, and its name can be added again under a new id.
+ *
+ * Ids are handed out from memory, so everything using one categories file
+ * should share one manager: get it with forFile() rather than a constructor.
+ */
 public class CategoryManager {
-    private static final String CATEGORIES_FILE = "categories.txt";
+    public static final String CATEGORIES_FILE = "categories.txt";
+    private static final int FIRST_CUSTOM_ID = 100;
+    private static final String NEXT_ID_HEADER = "# next id: ";
+    private static final String REMOVED_PREFIX = "# removed: "; // a comment to older readers, which drop it
+
+    private final String categoriesFile;
     private Map<String, Category> categories;
+    private Map<Integer, Category> categoriesById;
     private Set<String> defaultCategoryNames;
+    private Set<Integer> removedIds; // tombstones, still in categoriesById but not in categories
+    private int nextId = FIRST_CUSTOM_ID;
+
+    // One manager per categories file, so two managers never hand out the same id or overwrite each other's saves
+    private static final ConcurrentHashMap<String, CategoryManager> SHARED = new ConcurrentHashMap<>();
+
+    /** The manager of categoriesFile shared by every account and file manager in this JVM */
+    public static CategoryManager forFile(String categoriesFile) {
+        if (categoriesFile == null || categoriesFile.trim().isEmpty()) {
+            throw new IllegalArgumentException("Categories file name cannot be empty");
+        }
+        File file = new File(categoriesFile);
+        String key;
+        try {
+            key = file.getCanonicalPath();
+        } catch (IOException e) {
+            key = file.getAbsolutePath();
+        }
+        return SHARED.computeIfAbsent(key, k -> new CategoryManager(categoriesFile));
+    }
 
     public CategoryManager() {
+        this(CATEGORIES_FILE);
+    }
+
+    public CategoryManager(String categoriesFile) {
+        if (categoriesFile == null || categoriesFile.trim().isEmpty()) {
+            throw new IllegalArgumentException("Categories file name cannot be empty");
+        }
+        this.categoriesFile = categoriesFile;
         this.categories = new HashMap<>();
+        this.categoriesById = new HashMap<>();
         this.defaultCategoryNames = new HashSet<>();
+        this.removedIds = new HashSet<>();
         initializeDefaultCategories();
         loadCategories();
     }
 
     private void initializeDefaultCategories() {
+        // WHY fixed ids? Files written with category references depend on them, so only append to this list
         Category[] defaults = {
             // Income categories
-            new Category("Salary", "Regular employment income", Category.CategoryType.INCOME_CATEGORY, true),
-            new Category("Freelance", "Freelance work income", Category.CategoryType.INCOME_CATEGORY, true),
-            new Category("Investment", "Investment returns", Category.CategoryType.INCOME_CATEGORY, true),
-            new Category("Other Income", "Miscellaneous income", Category.CategoryType.INCOME_CATEGORY, true),
-            
+            new Category(1, "Salary", "Regular employment income", Category.CategoryType.INCOME_CATEGORY, true),
+            new Category(2, "Freelance", "Freelance work income", Category.CategoryType.INCOME_CATEGORY, true),
+            new Category(3, "Investment", "Investment returns", Category.CategoryType.INCOME_CATEGORY, true),
+            new Category(4, "Other Income", "Miscellaneous income", Category.CategoryType.INCOME_CATEGORY, true),
+
             // Expense categories
-            new Category("Food", "Groceries and dining", Category.CategoryType.EXPENSE_CATEGORY, true),
-            new Category("Transportation", "Car, gas, public transport", Category.CategoryType.EXPENSE_CATEGORY, true),
-            new Category("Housing", "Rent, mortgage, utilities", Category.CategoryType.EXPENSE_CATEGORY, true),
-            new Category("Entertainment", "Movies, games, hobbies", Category.CategoryType.EXPENSE_CATEGORY, true),
-            new Category("Healthcare", "Medical expenses", Category.CategoryType.EXPENSE_CATEGORY, true),
-            new Category("Bills", "Utilities, phone, internet", Category.CategoryType.EXPENSE_CATEGORY, true),
-            new Category("Shopping", "Clothes, personal items", Category.CategoryType.EXPENSE_CATEGORY, true),
-            new Category("Education", "Books, courses, training", Category.CategoryType.EXPENSE_CATEGORY, true),
-            new Category("Other", "Miscellaneous expenses", Category.CategoryType.BOTH, true)
+            new Category(5, "Food", "Groceries and dining", Category.CategoryType.EXPENSE_CATEGORY, true),
+            new Category(6, "Transportation", "Car, gas, public transport", Category.CategoryType.EXPENSE_CATEGORY, true),
+            new Category(7, "Housing", "Rent, mortgage, utilities", Category.CategoryType.EXPENSE_CATEGORY, true),
+            new Category(8, "Entertainment", "Movies, games, hobbies", Category.CategoryType.EXPENSE_CATEGORY, true),
+            new Category(9, "Healthcare", "Medical expenses", Category.CategoryType.EXPENSE_CATEGORY, true),
+            new Category(10, "Bills", "Utilities, phone, internet", Category.CategoryType.EXPENSE_CATEGORY, true),
+            new Category(11, "Shopping", "Clothes, personal items", Category.CategoryType.EXPENSE_CATEGORY, true),
+            new Category(12, "Education", "Books, courses, training", Category.CategoryType.EXPENSE_CATEGORY, true),
+            new Category(13, "Other", "Miscellaneous expenses", Category.CategoryType.BOTH, true)
         };
 
         for(Category category: defaults) {
-            categories.put(category.getName(), category);
+            register(category);
             defaultCategoryNames.add(category.getName());
         }
     }
 
+    private void register(Category category) {
+        categories.put(category.getName(), category);
+        categoriesById.put(category.getId(), category);
+    }
+
     //Category CRUD Operations
-    public void addCategory(String name, String description, Category.CategoryType type) throws InvalidTransactionException{
+    public synchronized void addCategory(String name, String description, Category.CategoryType type) throws InvalidTransactionException{
         if(categories.containsKey(name)) {
             throw new InvalidTransactionException("Category already exists");
         }
-        Category category = new Category(name, description, type);
-        categories.put(name, category);
+        if(name != null && name.trim().startsWith("#")) {
+            // "#12" in a transactions file is a reference to category 12
+            throw new InvalidTransactionException("Category name cannot start with '#'");
+        }
+        Category category = new Category(nextId++, name, description, type, false);
+        register(category);
         saveCategories();
     }
 
     //Getters
-    public Category getCategory(String name) {
+    public synchronized Category getCategory(String name) {
         return categories.get(name);
     }
-    
-    public List<Category> getAllCategories() {
+
+    /** The category with this id, including a removed one (see isRemoved), or null */
+    public synchronized Category getCategory(int id) {
+        return categoriesById.get(id);
+    }
+
+    public synchronized boolean isRemoved(int id) {
+        return removedIds.contains(id);
+    }
+
+    /** Stable id of the named category, or Category.NO_ID if there is none (or it was removed) */
+    public synchronized int getCategoryId(String name) {
+        Category category = categories.get(name);
+        return category != null ? category.getId() : Category.NO_ID;
+    }
+
+    /**
+     * Name for a category field read from a transactions file with
+     * references: "#id" becomes the category's name, "##text" (a name
+     * starting with '#') loses its extra '#', and anything else (including
+     * references to unknown ids) is returned unchanged.
+     */
+    public String resolveReference(String field) {
+        if (field.startsWith("##")) return field.substring(1);
+        if (field.length() < 2 || field.charAt(0) != '#' || field.length() > 10) return field;
+        int id = 0;
+        for (int i = 1; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c < '0' || c > '9') return field;
+            id = id * 10 + (c - '0');
+        }
+        Category category = getCategory(id);
+        return category != null ? category.getName() : field;
+    }
+
+    public synchronized List<Category> getAllCategories() {
         return new ArrayList<>(categories.values());
     }
 
-    public List<Category> getCategoriesForType(Category.CategoryType type) {
+    public synchronized List<Category> getCategoriesForType(Category.CategoryType type) {
         return categories.values().stream().filter(c -> c.getType() == type || c.getType() == Category.CategoryType.BOTH).sorted(Comparator.comparing(Category::getName)).collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
     }
 
-    public boolean categoryExists(String name) {
+    public synchronized boolean categoryExists(String name) {
         return categories.containsKey(name);
     }
-    
-    public void removeCategory(String name) throws InvalidTransactionException {
+
+    public synchronized void removeCategory(String name) throws InvalidTransactionException {
         Category category = categories.get(name);
         if (category == null) {
             throw new InvalidTransactionException("Category does not exist: " + name);
         }
-        
+
         if (category.isDefault()) {
             throw new InvalidTransactionException("Cannot delete default category: " + name);
         }
-        
+
+        // WHY keep it by id? Transactions files may still refer to it as "#id"
         categories.remove(name);
+        removedIds.add(category.getId());
         saveCategories();
     }
 
     // File operations
+    // Custom categories only; the defaults are built in. Bad lines are skipped with a warning.
+    private void loadCategories() {
+        File file = new File(categoriesFile);
+        if (!file.exists()) return;
+
+        List<Category> withoutId = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.startsWith(NEXT_ID_HEADER)) {
+                    try {
+                        nextId = Math.max(nextId, Integer.parseInt(line.substring(NEXT_ID_HEADER.length()).trim()));
+                    } catch (NumberFormatException e) {
+                        System.err.println("Warning: Invalid next id in " + categoriesFile + ": " + line);
+                    }
+                    continue;
+                }
+                boolean removed = line.startsWith(REMOVED_PREFIX);
+                if (removed) line = line.substring(REMOVED_PREFIX.length());
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                try {
+                    Category category = Category.fromFileFormat(line);
+                    if (removed) {
+                        // Only resolvable by its stored id, so one without a usable id is dropped
+                        if (category.getId() >= FIRST_CUSTOM_ID && !categoriesById.containsKey(category.getId())) {
+                            categoriesById.put(category.getId(), category);
+                            removedIds.add(category.getId());
+                            nextId = Math.max(nextId, category.getId() + 1);
+                        }
+                        continue;
+                    }
+                    if (category.isDefault() || categories.containsKey(category.getName())) continue;
+                    if (category.getId() < FIRST_CUSTOM_ID || categoriesById.containsKey(category.getId())) {
+                        withoutId.add(category);
+                        continue;
+                    }
+                    register(category);
+                    nextId = Math.max(nextId, category.getId() + 1);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping invalid category (line " + lineNo + "): " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not load categories - " + e.getMessage());
+            return;
+        }
+
+        // Old lines without an id (or with a clashing one) get fresh ids once all stored ids are known
+        for (Category category : withoutId) {
+            register(new Category(nextId++, category.getName(), category.getDescription(), category.getType(), false));
+        }
+        if (!withoutId.isEmpty()) saveCategories();
+    }
+
+    // Written to a temporary file first and moved into place, like the transactions file
     private void saveCategories() {
-        
+        List<Category> sorted = new ArrayList<>(categoriesById.values());
+        sorted.sort(Comparator.comparingInt(Category::getId));
+
+        File temp = new File(categoriesFile + ".tmp");
+        try {
+            try (PrintWriter writer = new PrintWriter(new FileWriter(temp))) {
+                writer.println(NEXT_ID_HEADER + nextId);
+                for (Category category : sorted) {
+                    writer.println((removedIds.contains(category.getId()) ? REMOVED_PREFIX : "") + category.toFileFormat());
+                }
+                if (writer.checkError()) throw new IOException("Write failed");
+            }
+            try {
+                Files.move(temp.toPath(), new File(categoriesFile).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), new File(categoriesFile).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            System.err.println("Warning: Could not save categories - " + e.getMessage());
+        }
     }
 }
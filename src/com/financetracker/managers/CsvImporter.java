@@ -0,0 +1,487 @@
+package com.financetracker.managers;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.financetracker.exceptions.DataFileException;
+import com.financetracker.models.Account;
+import com.financetracker.models.Category;
+import com.financetracker.models.Expense;
+import com.financetracker.models.Income;
+import com.financetracker.models.Money;
+import com.financetracker.models.Transaction;
+
+/**
+ * Imports a bank statement CSV into an Account. The file is read as a
+ * stream in batches of rows; each batch is parsed and validated on the
+ * common fork-join pool while the next one is read, mapped onto the
+ * account's categories, and committed with Account.addAll (one balance
+ * update and one write per batch). Memory stays bounded by a few batches
+ * whatever the file size.
+ *
+ * The first row must be a header. Columns are found by name: a date, a
+ * description and either a signed amount or separate debit/credit columns,
+ * plus optional category and type (debit/credit) columns.
+ *
+ * Rows already in the account (an overlapping statement period imported
+ * again) follow the account's duplicate policy and are counted in the
+ * report as rejected, merged or flagged.
+ */
+public class CsvImporter {
+    public static final int DEFAULT_BATCH_SIZE = 20000;
+    // A quoted field running past this many characters is treated as an unterminated quote
+    private static final int MAX_RECORD_CHARS = 64 * 1024;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Header names recognised for each column, lower-case
+    private static final String[] DATE_HEADERS = { "date", "transaction date", "posting date", "value date", "booking date" };
+    private static final String[] DESCRIPTION_HEADERS = { "description", "details", "transaction details", "memo", "narration", "payee", "particulars" };
+    private static final String[] AMOUNT_HEADERS = { "amount", "transaction amount", "value" };
+    private static final String[] DEBIT_HEADERS = { "debit", "debit amount", "withdrawal", "withdrawals", "money out", "paid out" };
+    private static final String[] CREDIT_HEADERS = { "credit", "credit amount", "deposit", "deposits", "money in", "paid in" };
+    private static final String[] CATEGORY_HEADERS = { "category" };
+    private static final String[] TYPE_HEADERS = { "type", "transaction type", "dr/cr", "cr/dr" };
+
+    private final Account account;
+    private final Map<String, Category> categoriesByName = new HashMap<>(); // lower-case name -> category
+    private final Map<String, String> categoryRules = new LinkedHashMap<>(); // description keyword -> category
+
+    private char delimiter = ',';
+    private DateTimeFormatter dateFormat = DateTimeFormatter.ISO_LOCAL_DATE;
+    private Charset charset = StandardCharsets.UTF_8;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private String incomeSource = "Bank Import";
+    private String paymentMethod = "Bank Transfer";
+    private boolean expensesEssential = false;
+
+    public CsvImporter(Account account) {
+        if (account == null) throw new IllegalArgumentException("Account cannot be null");
+        this.account = account;
+        for (Category category : account.getCategoryManager().getAllCategories()) {
+            categoriesByName.put(category.getName().toLowerCase(Locale.ROOT), category);
+        }
+    }
+
+    public void setDelimiter(char delimiter) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid delimiter");
+        }
+        this.delimiter = delimiter;
+    }
+
+    // e.g. "dd/MM/yyyy"; the default is yyyy-MM-dd
+    public void setDateFormat(String pattern) {
+        this.dateFormat = DateTimeFormatter.ofPattern(pattern, Locale.ROOT);
+    }
+
+    public void setCharset(Charset charset) {
+        if (charset == null) throw new IllegalArgumentException("Charset cannot be null");
+        this.charset = charset;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be at least 1");
+        this.batchSize = batchSize;
+    }
+
+    public void setIncomeSource(String incomeSource) { this.incomeSource = incomeSource; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+    public void setExpensesEssential(boolean expensesEssential) { this.expensesEssential = expensesEssential; }
+
+    /**
+     * Rows whose description contains keyword (ignoring case) go to
+     * category, unless the file's own category column names a known
+     * category. Rules are tried in the order they were added.
+     */
+    public void addCategoryRule(String keyword, String category) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            throw new IllegalArgumentException("Keyword cannot be empty");
+        }
+        if (category == null || !categoriesByName.containsKey(category.trim().toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("Unknown category: " + category);
+        }
+        categoryRules.put(keyword.trim().toLowerCase(Locale.ROOT), category.trim());
+    }
+
+    public ImportReport importFile(String path) throws DataFileException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(path), charset)) {
+            return importFrom(reader);
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read CSV file: " + path, e);
+        }
+    }
+
+    /**
+     * Imports every row of the reader. Batches already committed stay in the
+     * account if reading fails part way through.
+     */
+    public ImportReport importFrom(Reader source) throws DataFileException {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        LineCounter lines = new LineCounter();
+        try {
+            RawRow header = readRecord(reader, lines);
+            if (header == null) {
+                throw new DataFileException("CSV file is empty");
+            }
+            Columns columns = resolveColumns(split(header.text));
+
+            // Parse batch n on the pool while batch n-1 is committed and batch n+1 is read
+            List<RawRow> batch = readBatch(reader, lines);
+            CompletableFuture<List<ParsedRow>> parsing = null;
+            while (!batch.isEmpty()) {
+                List<RawRow> rows = batch;
+                CompletableFuture<List<ParsedRow>> next = CompletableFuture.supplyAsync(() -> parseBatch(rows, columns));
+                if (parsing != null) commit(join(parsing), report);
+                parsing = next;
+                batch = readBatch(reader, lines);
+            }
+            if (parsing != null) commit(join(parsing), report);
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read CSV file", e);
+        }
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        return report;
+    }
+
+    private static List<ParsedRow> join(CompletableFuture<List<ParsedRow>> parsing) {
+        try {
+            return parsing.join();
+        } catch (CompletionException e) {
+            // parseRow catches bad rows itself, so this is a bug rather than bad data
+            throw new IllegalStateException("CSV parsing failed", e.getCause());
+        }
+    }
+
+    // Stage 1: streaming read
+
+    private static class LineCounter {
+        int lineNo;
+    }
+
+    // One CSV record; text spans several lines when a quoted field contains line breaks
+    private static class RawRow {
+        final int lineNo;
+        final String text;
+
+        RawRow(int lineNo, String text) {
+            this.lineNo = lineNo;
+            this.text = text;
+        }
+    }
+
+    private List<RawRow> readBatch(BufferedReader reader, LineCounter lines) throws IOException {
+        List<RawRow> batch = new ArrayList<>(Math.min(batchSize, 1024));
+        RawRow row;
+        while (batch.size() < batchSize && (row = readRecord(reader, lines)) != null) {
+            batch.add(row);
+        }
+        return batch;
+    }
+
+    // Next non-blank record, or null at the end of the input
+    private RawRow readRecord(BufferedReader reader, LineCounter lines) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.lineNo++;
+            if (lines.lineNo == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1); // byte order mark
+            }
+            if (line.trim().isEmpty()) continue;
+            int startLine = lines.lineNo;
+            if (!hasOpenQuote(line)) return new RawRow(startLine, line);
+
+            StringBuilder record = new StringBuilder(line);
+            String more;
+            while (record.length() < MAX_RECORD_CHARS && (more = reader.readLine()) != null) {
+                lines.lineNo++;
+                record.append('\n').append(more);
+                if (!hasOpenQuote(record)) break;
+            }
+            return new RawRow(startLine, record.toString()); // the parser rejects it if still open
+        }
+        return null;
+    }
+
+    private static boolean hasOpenQuote(CharSequence text) {
+        boolean open = false;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') open = !open;
+        }
+        return open;
+    }
+
+    // Stage 2: parallel parse and validation
+
+    private static class Columns {
+        int date = -1, description = -1, amount = -1, debit = -1, credit = -1, category = -1, type = -1;
+        int required; // rows must have at least this many fields
+    }
+
+    private static class ParsedRow {
+        final RawRow raw;
+        final String error; // null when valid
+        final boolean expense;
+        final double amount;
+        final String description;
+        final String category;
+        final LocalDate date;
+
+        ParsedRow(RawRow raw, String error) {
+            this(raw, error, false, 0, null, null, null);
+        }
+
+        ParsedRow(RawRow raw, String error, boolean expense, double amount, String description,
+                  String category, LocalDate date) {
+            this.raw = raw;
+            this.error = error;
+            this.expense = expense;
+            this.amount = amount;
+            this.description = description;
+            this.category = category;
+            this.date = date;
+        }
+    }
+
+    private Columns resolveColumns(List<String> header) throws DataFileException {
+        Columns columns = new Columns();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (columns.date < 0 && matches(name, DATE_HEADERS)) columns.date = i;
+            else if (columns.description < 0 && matches(name, DESCRIPTION_HEADERS)) columns.description = i;
+            else if (columns.amount < 0 && matches(name, AMOUNT_HEADERS)) columns.amount = i;
+            else if (columns.debit < 0 && matches(name, DEBIT_HEADERS)) columns.debit = i;
+            else if (columns.credit < 0 && matches(name, CREDIT_HEADERS)) columns.credit = i;
+            else if (columns.category < 0 && matches(name, CATEGORY_HEADERS)) columns.category = i;
+            else if (columns.type < 0 && matches(name, TYPE_HEADERS)) columns.type = i;
+        }
+        if (columns.date < 0 || columns.description < 0) {
+            throw new DataFileException("CSV header needs a date and a description column: " + header);
+        }
+        if (columns.amount < 0 && columns.debit < 0 && columns.credit < 0) {
+            throw new DataFileException("CSV header needs an amount column or debit/credit columns: " + header);
+        }
+        columns.required = Math.max(columns.date, Math.max(columns.description,
+                Math.max(columns.amount, Math.max(columns.debit, columns.credit)))) + 1;
+        return columns;
+    }
+
+    private static boolean matches(String name, String[] aliases) {
+        for (String alias : aliases) {
+            if (alias.equals(name)) return true;
+        }
+        return false;
+    }
+
+    private List<ParsedRow> parseBatch(List<RawRow> rows, Columns columns) {
+        return rows.parallelStream().map(row -> parseRow(row, columns)).collect(Collectors.toList());
+    }
+
+    private ParsedRow parseRow(RawRow raw, Columns columns) {
+        if (hasOpenQuote(raw.text)) return new ParsedRow(raw, "Unterminated quoted field");
+        List<String> fields = split(raw.text);
+        if (fields.size() < columns.required) return new ParsedRow(raw, "Missing columns");
+
+        // Line breaks inside a quoted description would split the record in the data file
+        String description = WHITESPACE.matcher(fields.get(columns.description)).replaceAll(" ").trim();
+        if (description.isEmpty()) return new ParsedRow(raw, "Missing description");
+
+        LocalDate date;
+        try {
+            date = LocalDate.parse(fields.get(columns.date).trim(), dateFormat);
+        } catch (DateTimeParseException e) {
+            return new ParsedRow(raw, "Invalid date");
+        }
+
+        // Signed amount, or debit (money out) / credit (money in)
+        double signed;
+        try {
+            if (columns.amount >= 0) {
+                signed = parseAmount(fields.get(columns.amount));
+            } else {
+                double debit = columns.debit >= 0 ? parseAmount(field(fields, columns.debit)) : 0;
+                double credit = columns.credit >= 0 ? parseAmount(field(fields, columns.credit)) : 0;
+                if (debit != 0 && credit != 0) return new ParsedRow(raw, "Both debit and credit given");
+                signed = credit != 0 ? Math.abs(credit) : -Math.abs(debit);
+            }
+        } catch (NumberFormatException e) {
+            return new ParsedRow(raw, "Invalid amount");
+        }
+        boolean expense = signed < 0;
+        if (columns.type >= 0) {
+            Boolean typeIsExpense = parseType(field(fields, columns.type));
+            if (typeIsExpense != null) expense = typeIsExpense;
+        }
+        double amount = Math.abs(signed);
+        if (Money.toCents(amount) <= 0) return new ParsedRow(raw, "Amount must be at least 0.01");
+
+        String bankCategory = columns.category >= 0 ? field(fields, columns.category).trim() : "";
+        return new ParsedRow(raw, null, expense, amount, description,
+                mapCategory(bankCategory, description, expense), date);
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : "";
+    }
+
+    // RFC 4180 fields: quoted fields may contain the delimiter, line breaks and doubled quotes
+    private List<String> split(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Bank style amounts: "1,234.56", "-12.00", "12.00-", "(12.00)",
+     * "$ 12.00", "12.00 DR" (money out) and "12.00 CR" (money in). Blank is
+     * 0. Thousands separators and currency symbols are ignored; '.' is the
+     * decimal separator. Any other letters make the amount invalid, so
+     * "1.5e3" is refused rather than read as 1.53.
+     */
+    static double parseAmount(String text) {
+        String s = text.trim();
+        if (s.isEmpty()) return 0;
+        boolean negative = false;
+        String upper = s.toUpperCase(Locale.ROOT);
+        if (upper.endsWith("DR") || upper.endsWith("CR")) {
+            negative = upper.endsWith("DR");
+            s = s.substring(0, s.length() - 2).trim();
+        }
+        if (s.startsWith("(") && s.endsWith(")")) {
+            negative = !negative;
+            s = s.substring(1, s.length() - 1);
+        }
+        StringBuilder digits = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '.') {
+                digits.append(c);
+            } else if (c == '-') {
+                negative = !negative;
+            } else if (c != ',' && c != '+' && c != ' '
+                    && Character.getType(c) != Character.CURRENCY_SYMBOL) {
+                throw new NumberFormatException("Unexpected character in amount: " + text);
+            }
+        }
+        if (digits.length() == 0) throw new NumberFormatException("No digits in amount: " + text);
+        double value = Double.parseDouble(digits.toString());
+        return negative ? -value : value;
+    }
+
+    // true = expense, false = income, null = not a type we know (the sign decides)
+    private static Boolean parseType(String text) {
+        switch (text.trim().toUpperCase(Locale.ROOT)) {
+            case "DEBIT": case "DR": case "D": case "EXPENSE": case "WITHDRAWAL":
+                return Boolean.TRUE;
+            case "CREDIT": case "CR": case "C": case "INCOME": case "DEPOSIT":
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    // Stage 3: category mapping. Read-only lookups, safe from the parse threads.
+    private String mapCategory(String bankCategory, String description, boolean expense) {
+        if (!bankCategory.isEmpty()) {
+            Category known = categoriesByName.get(bankCategory.toLowerCase(Locale.ROOT));
+            if (known != null && fits(known, expense)) return known.getName();
+        }
+        String text = description.toLowerCase(Locale.ROOT);
+        String bank = bankCategory.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, String> rule : categoryRules.entrySet()) {
+            if (text.contains(rule.getKey()) || bank.contains(rule.getKey())) {
+                Category category = categoriesByName.get(rule.getValue().toLowerCase(Locale.ROOT));
+                if (fits(category, expense)) return category.getName();
+            }
+        }
+        return expense ? "Other" : "Other Income";
+    }
+
+    private static boolean fits(Category category, boolean expense) {
+        switch (category.getType()) {
+            case INCOME_CATEGORY: return !expense;
+            case EXPENSE_CATEGORY: return expense;
+            default: return true;
+        }
+    }
+
+    // Stage 4: one commit per batch. Transactions are built here so ids follow row order.
+
+    private void commit(List<ParsedRow> parsed, ImportReport report) {
+        int valid = 0;
+        for (ParsedRow row : parsed) {
+            if (row.error == null) valid++;
+        }
+        List<Transaction> batch = new ArrayList<>(valid);
+        int id = Transaction.allocateIds(valid);
+        for (ParsedRow row : parsed) {
+            if (row.error != null) continue;
+            batch.add(row.expense
+                    ? new Expense(id++, row.amount, row.description, row.category, row.date, expensesEssential, paymentMethod)
+                    : new Income(id++, row.amount, row.description, row.category, row.date, incomeSource));
+        }
+        String[] rejected = account.addAll(batch);
+
+        int b = 0;
+        for (ParsedRow row : parsed) {
+            report.rowRead();
+            if (row.error != null) {
+                report.reject(row.raw.lineNo, row.error, row.raw.text);
+                continue;
+            }
+            String reason = rejected[b];
+            Transaction t = batch.get(b++);
+            if (Account.DUPLICATE_MERGED.equals(reason)) {
+                report.merged();
+            } else if (reason != null) {
+                report.reject(row.raw.lineNo, reason, row.raw.text);
+            } else {
+                report.imported(t.getAmount(), row.expense);
+                if (account.isFlaggedDuplicate(t.getId())) report.flaggedDuplicate();
+            }
+        }
+    }
+}
@@ -1,64 +1,233 @@
 package com.financetracker.managers;
 
+import com.financetracker.models.Income;
+import com.financetracker.models.Money;
+import com.financetracker.models.PeriodTotals;
+import com.financetracker.models.StringDictionary;
 import com.financetracker.models.Transaction;
+import com.financetracker.models.TransactionSerializer;
 import com.financetracker.exceptions.DataFileException;
+import com.financetracker.metrics.Counter;
+import com.financetracker.metrics.LatencyHistogram;
+import com.financetracker.metrics.LoadEvent;
+import com.financetracker.metrics.MetricsRegistry;
+import com.financetracker.metrics.SaveEvent;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 public class FileManager {
-    private static final String TRANSACTIONS_FILE = "transactions.txt";
-    private static final String BACKUP_FILE = "transactions_backup.txt";
+    public static final String TRANSACTIONS_FILE = "transactions.txt";
+    // Files at least this large are loaded with the parallel memory-mapped loader
+    private static final long PARALLEL_LOAD_THRESHOLD = 4L << 20;
+    private static final int WRITE_BLOCK_SIZE = 64 * 1024;
+    // First line of a text file whose records may refer to categories as "#id"; files without it are read verbatim
+    static final String CATEGORY_REFERENCES_HEADER = "#category-references";
+
+    private static final LatencyHistogram SAVE_LATENCY = MetricsRegistry.global().histogram(MetricsRegistry.FILE_SAVE);
+    private static final LatencyHistogram LOAD_LATENCY = MetricsRegistry.global().histogram(MetricsRegistry.FILE_LOAD);
+    private static final Counter RECORDS_WRITTEN = MetricsRegistry.global().counter(MetricsRegistry.RECORDS_WRITTEN);
+    private static final Counter RECORDS_SKIPPED = MetricsRegistry.global().counter(MetricsRegistry.RECORDS_SKIPPED);
+    private static final Counter BACKUP_FAILURES = MetricsRegistry.global().counter(MetricsRegistry.BACKUP_FAILURES);
+    private static final Counter ATOMIC_MOVE_FALLBACKS =
+            MetricsRegistry.global().counter(MetricsRegistry.ATOMIC_MOVE_FALLBACKS);
+
+    // When appended journal records are forced to disk
+    public enum SyncPolicy {
+        NEVER,      // leave it to the OS (fastest, may lose the last records on a crash)
+        ALWAYS,     // fsync after every append
+        BATCH       // fsync after every N appends
+    }
+
+    // On-disk layout of the transactions file
+    public enum StorageFormat {
+        TEXT,       // id|TYPE|amount|description|category|date|extras, one per line
+        BINARY      // see BinaryTransactionFormat
+    }
+
+    private final String transactionsFile;
+    private final BackupManager backups;
+    private final String snapshotFile;
+    private final String summaryFile;
+    private final String budgetsFile;
+    private final String categoriesFile;
+    private long generation; // bumped whenever the file is rewritten or restored, which invalidates snapshots
+    private SyncPolicy syncPolicy = SyncPolicy.NEVER;
+    private int syncInterval = 1;
+    private int appendsSinceSync = 0;
+    private FileChannel journal; // opened lazily, closed before any full rewrite
+    private final TransactionSerializer serializer = new TransactionSerializer();
+    private StorageFormat storageFormat = StorageFormat.TEXT; // format used by full saves
+    private StorageFormat fileFormat;                          // format currently on disk, null = not checked yet
+    private StringDictionary binaryDictionary;                 // dictionary of the binary file on disk, for appends
+    private long binaryValidLength = -1;                       // end of its last complete entry when last read, -1 = not checked
+    private int lastLoadSkipped;                               // invalid records in the last load, for LoadEvent
+    private CategoryManager categories;                        // resolves "#id" categories, shared one on first need
+    private boolean categoryReferences;                        // full saves write "#id" categories
+    private boolean fileReferences;                            // the text file on disk declares "#id" categories
+
+    public FileManager() {
+        this(TRANSACTIONS_FILE);
+    }
+
+    // Backups, snapshot, summary and budgets go next to the data file: data.txt -> data_backups/, data.snapshot, ...
+    // and categories.txt goes in the same directory, shared by every data file there
+    public FileManager(String transactionsFile) {
+        if (transactionsFile == null || transactionsFile.trim().isEmpty()) {
+            throw new IllegalArgumentException("Transactions file name cannot be empty");
+        }
+        this.transactionsFile = transactionsFile;
+        int dot = transactionsFile.lastIndexOf('.');
+        int slash = Math.max(transactionsFile.lastIndexOf('/'), transactionsFile.lastIndexOf(File.separatorChar));
+        String base = dot > slash ? transactionsFile.substring(0, dot) : transactionsFile;
+        this.backups = new BackupManager(transactionsFile, base + "_backups");
+        this.snapshotFile = base + ".snapshot";
+        this.summaryFile = base + ".summary";
+        this.budgetsFile = base + ".budgets";
+        this.categoriesFile = transactionsFile.substring(0, slash + 1) + CategoryManager.CATEGORIES_FILE;
+    }
+
+    public String getTransactionsFile() { return transactionsFile; }
+    public BackupManager getBackupManager() { return backups; }
+    public String getSnapshotFile() { return snapshotFile; }
+    public String getSummaryFile() { return summaryFile; }
+    public String getBudgetsFile() { return budgetsFile; }
+    public String getCategoriesFile() { return categoriesFile; }
+    public SyncPolicy getSyncPolicy() { return syncPolicy; }
+    public StorageFormat getStorageFormat() { return storageFormat; }
+    public boolean isCategoryReferences() { return categoryReferences; }
+
+    /** Categories used to read (and, with category references on, write) "#id" category fields */
+    public synchronized void setCategoryManager(CategoryManager categories) {
+        if (categories == null) throw new IllegalArgumentException("Category manager cannot be null");
+        this.categories = categories;
+    }
+
+    /**
+     * Opt-in: the next full save (or the first append to an empty file)
+     * writes a text file that starts with CATEGORY_REFERENCES_HEADER and
+     * stores a known category as "#id" (see CategoryManager) instead of
+     * its name, which shortens the lines; appends follow whatever the file
+     * on disk declares. Only files with the header have their "#id"
+     * categories resolved, so a free-text "#5" elsewhere stays as it is.
+     * Files with references need the same categories.txt to be read back,
+     * so leave this off for files that are shared with other tools.
+     */
+    public synchronized void setCategoryReferences(boolean enabled) {
+        this.categoryReferences = enabled;
+    }
+
+    // Points the serializer at the category ids when writing to a file with references
+    private void useCategoryIds(boolean references) {
+        serializer.setCategoryIds(references ? getCategoryManager()::getCategoryId : null);
+    }
+
+    // Whether the text file starts with CATEGORY_REFERENCES_HEADER
+    static boolean declaresCategoryReferences(File file) throws IOException {
+        if (file.length() == 0) return false;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), Charset.defaultCharset()))) {
+            return CATEGORY_REFERENCES_HEADER.equals(reader.readLine());
+        }
+    }
+
+    /** Categories of this file: the one set with setCategoryManager(), else the shared manager of its directory */
+    public synchronized CategoryManager getCategoryManager() {
+        if (categories == null) categories = CategoryManager.forFile(categoriesFile);
+        return categories;
+    }
+
+    // Replaces a "#id" category read from a file with references with the category's name
+    static void resolveCategory(Transaction t, CategoryManager categories) {
+        String category = t.getCategory();
+        if (category.charAt(0) == '#') {
+            t.setCategory(categories.resolveReference(category));
+        }
+    }
+
+    private List<Transaction> resolveCategories(List<Transaction> transactions) {
+        if (!fileReferences) return transactions;
+        CategoryManager resolver = null;
+        for (Transaction t : transactions) {
+            if (t.getCategory().charAt(0) != '#') continue;
+            if (resolver == null) resolver = getCategoryManager();
+            resolveCategory(t, resolver);
+        }
+        return transactions;
+    }
+
+    /** Format written by the next full save; loading a file switches to that file's format */
+    public synchronized void setStorageFormat(StorageFormat format) {
+        if (format == null) throw new IllegalArgumentException("Storage format cannot be null");
+        this.storageFormat = format;
+    }
+
+    /**
+     * One-shot conversion of the transactions file to the given format,
+     * e.g. to migrate an existing transactions.txt to binary (or back).
+     * The previous file stays restorable from the backups like any other save.
+     */
+    public synchronized void convertStorageFormat(StorageFormat target) throws DataFileException {
+        List<Transaction> transactions = loadTransactions();
+        setStorageFormat(target);
+        saveTransactions(transactions);
+    }
+
+    public synchronized void setSyncPolicy(SyncPolicy policy) {
+        setSyncPolicy(policy, 1);
+    }
+
+    public synchronized void setSyncPolicy(SyncPolicy policy, int interval) {
+        if (policy == null) throw new IllegalArgumentException("Sync policy cannot be null");
+        if (interval <= 0) throw new IllegalArgumentException("Sync interval must be positive");
+        this.syncPolicy = policy;
+        this.syncInterval = interval;
+    }
 
     /**
      * Saves transactions atomically:
      *  - writes to a temporary file
      *  - if successful, replaces the original file
-     *  - keeps a simple backup copy of the previous file
+     *  - backs up what was appended to the previous file since its last
+     *    backup, then starts a new backup chain with a copy of the new file
      */
-    public void saveTransactions(List<Transaction> transactions) throws DataFileException {
-        File temp = new File(TRANSACTIONS_FILE + ".tmp");
-        File dest = new File(TRANSACTIONS_FILE);
-        File backup = new File(BACKUP_FILE);
+    public synchronized void saveTransactions(List<Transaction> transactions) throws DataFileException {
+        long start = System.nanoTime();
+        SaveEvent event = new SaveEvent();
+        event.begin();
+        closeJournal();
+
+        File temp = new File(transactionsFile + ".tmp");
+        File dest = new File(transactionsFile);
 
         // Write to temp file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp))) {
-            for (Transaction t : transactions) {
-                // Enhanced validation - let Transaction class handle its own validation
-                if (t == null) {
-                    System.err.println("Warning: Skipping null transaction");
-                    continue;
-                }
-                if (t.getId() <= 0) {
-                    System.err.println("Warning: Skipping transaction with invalid ID: " + t.getId());
-                    continue;
-                }
-                if (t.getAmount() <= 0) {
-                    System.err.println("Warning: Skipping transaction with invalid amount: " + t.getAmount());
-                    continue;
-                }
-                if (t.getDescription() == null || t.getDescription().trim().isEmpty()) {
-                    System.err.println("Warning: Skipping transaction with invalid description");
-                    continue;
-                }
-                writer.write(t.toFileFormat());
-                writer.newLine();
+        StringDictionary dictionary = null;
+        int written;
+        try {
+            if (storageFormat == StorageFormat.BINARY) {
+                List<Transaction> valid = writable(transactions);
+                written = valid.size();
+                dictionary = writeBinary(temp, valid);
+            } else {
+                written = writeText(temp, transactions);
             }
         } catch (IOException e) {
             throw new DataFileException("Failed to write transactions to temp file", e);
         }
 
-        // Create a backup of current file (if exists)
-        try {
-            if (dest.exists()) {
-                Files.copy(dest.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
-            }
-        } catch (IOException e) {
-            // Backup failing should not prevent save, but inform user
-            System.err.println("Warning: Could not create backup: " + e.getMessage());
-        }
+        // Back up the tail of the current file before it is replaced
+        if (!backupQuietly(false)) event.backupFailed = true;
+
+        invalidateSnapshot();
 
         // Replace original with temp (attempt atomic move; fallback to rename)
         try {
@@ -66,26 +235,302 @@ public class FileManager {
                 Files.move(temp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
             } catch (AtomicMoveNotSupportedException ex) {
                 // fallback
+                ATOMIC_MOVE_FALLBACKS.increment();
                 Files.move(temp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
             }
         } catch (IOException e) {
             throw new DataFileException("Failed to replace transactions file", e);
         }
+        fileFormat = storageFormat;
+        fileReferences = storageFormat == StorageFormat.TEXT && categoryReferences;
+        binaryDictionary = dictionary;
+        binaryValidLength = -1;
+        if (!backupQuietly(true)) event.backupFailed = true;
+
+        int skipped = transactions.size() - written;
+        RECORDS_WRITTEN.add(written);
+        RECORDS_SKIPPED.add(skipped);
+        SAVE_LATENCY.recordSince(start);
+        if (event.shouldCommit()) {
+            event.file = transactionsFile;
+            event.format = storageFormat.name();
+            event.records = written;
+            event.skipped = skipped;
+            event.bytes = dest.length();
+            event.commit();
+        }
 
         System.out.println("Data saved successfully");
     }
 
+    // Records are serialized into one reusable buffer which is handed to the writer in large blocks.
+    // Returns the number of records written.
+    private int writeText(File temp, List<Transaction> transactions) throws IOException {
+        int written = 0;
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), Charset.defaultCharset())) {
+            serializer.reset();
+            useCategoryIds(categoryReferences);
+            if (categoryReferences) {
+                writer.write(CATEGORY_REFERENCES_HEADER);
+                writer.write(System.lineSeparator());
+            }
+            for (Transaction t : transactions) {
+                if (!isWritable(t)) continue;
+                serializer.appendLine(t);
+                written++;
+                if (serializer.length() >= WRITE_BLOCK_SIZE) {
+                    serializer.writeTo(writer);
+                }
+            }
+            serializer.writeTo(writer);
+        }
+        return written;
+    }
+
+    private List<Transaction> writable(List<Transaction> transactions) {
+        List<Transaction> valid = new ArrayList<>(transactions.size());
+        for (Transaction t : transactions) {
+            if (isWritable(t)) valid.add(t);
+        }
+        return valid;
+    }
+
+    private StringDictionary writeBinary(File temp, List<Transaction> valid) throws IOException {
+        StringDictionary dictionary = new StringDictionary();
+        try (OutputStream out = new FileOutputStream(temp)) {
+            BinaryTransactionFormat.write(out, valid, dictionary);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Appends a single transaction to the end of the transactions file.
+     * Cost is O(1) in the size of the history; the full rewrite in
+     * saveTransactions() is only needed to compact the file.
+     */
+    public synchronized void appendTransaction(Transaction t) throws DataFileException {
+        if (!isWritable(t)) {
+            throw new DataFileException("Refusing to append invalid transaction");
+        }
+        try {
+            FileChannel channel = openJournal();
+            ByteBuffer buffer;
+            if (fileFormat == StorageFormat.BINARY) {
+                buffer = ByteBuffer.wrap(BinaryTransactionFormat.encodeAppend(t, binaryDictionary, channel.size() == 0));
+            } else {
+                serializer.reset();
+                useCategoryIds(fileReferences);
+                serializer.appendLine(t);
+                buffer = Charset.defaultCharset().encode(CharBuffer.wrap(serializer.buffer(), 0, serializer.length()));
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            RECORDS_WRITTEN.increment();
+            appendsSinceSync++;
+            if (syncPolicy == SyncPolicy.ALWAYS
+                    || (syncPolicy == SyncPolicy.BATCH && appendsSinceSync >= syncInterval)) {
+                channel.force(false);
+                appendsSinceSync = 0;
+            }
+        } catch (IOException e) {
+            closeJournal();
+            binaryDictionary = null; // rescan (and repair) a binary file before the next append
+            throw new DataFileException("Failed to append transaction to file", e);
+        }
+    }
+
+    /**
+     * Appends a batch of transactions with a single write, forcing it to
+     * disk once at the end if force is set (or the sync policy asks for it).
+     * Invalid transactions are skipped with a warning. Returns the number
+     * of records written. Used by PersistenceWriter.
+     */
+    public synchronized int appendTransactions(List<Transaction> batch, boolean force) throws DataFileException {
+        int written = 0;
+        try {
+            FileChannel channel = openJournal();
+            ByteBuffer buffer;
+            if (fileFormat == StorageFormat.BINARY) {
+                boolean empty = channel.size() == 0;
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * batch.size());
+                for (Transaction t : batch) {
+                    if (!isWritable(t)) continue;
+                    bytes.write(BinaryTransactionFormat.encodeAppend(t, binaryDictionary, empty && written == 0));
+                    written++;
+                }
+                buffer = ByteBuffer.wrap(bytes.toByteArray());
+            } else {
+                serializer.reset();
+                useCategoryIds(fileReferences);
+                for (Transaction t : batch) {
+                    if (!isWritable(t)) continue;
+                    serializer.appendLine(t);
+                    written++;
+                }
+                buffer = Charset.defaultCharset().encode(CharBuffer.wrap(serializer.buffer(), 0, serializer.length()));
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            RECORDS_WRITTEN.add(written);
+            RECORDS_SKIPPED.add(batch.size() - written);
+            appendsSinceSync += written;
+            if (force || syncPolicy == SyncPolicy.ALWAYS
+                    || (syncPolicy == SyncPolicy.BATCH && appendsSinceSync >= syncInterval)) {
+                channel.force(false);
+                appendsSinceSync = 0;
+            }
+            return written;
+        } catch (IOException e) {
+            closeJournal();
+            binaryDictionary = null; // rescan (and repair) a binary file before the next append
+            throw new DataFileException("Failed to append transactions to file", e);
+        }
+    }
+
+    // Opens the file for appending; text files must end with a line break,
+    // binary files need their dictionary so new strings get the next codes
+    private FileChannel openJournal() throws IOException {
+        if (journal != null && journal.isOpen()) return journal;
+
+        Path path = Paths.get(transactionsFile);
+        if (fileFormat == null) {
+            fileFormat = Files.exists(path) && Files.size(path) > 0
+                    ? (BinaryTransactionFormat.isBinary(path) ? StorageFormat.BINARY : StorageFormat.TEXT)
+                    : storageFormat;
+            fileReferences = fileFormat == StorageFormat.TEXT && declaresCategoryReferences(path.toFile());
+        }
+        if (fileFormat == StorageFormat.BINARY) {
+            if (binaryDictionary == null) {
+                binaryDictionary = new StringDictionary();
+                if (Files.exists(path) && Files.size(path) > 0) {
+                    try (InputStream in = Files.newInputStream(path)) {
+                        BinaryTransactionFormat.ReadResult scan = BinaryTransactionFormat.readDictionary(in);
+                        binaryDictionary = scan.dictionary;
+                        binaryValidLength = scan.validLength;
+                    }
+                }
+            }
+            // WHY truncate? Records appended after a torn entry would be read as part of it and lost
+            if (binaryValidLength >= 0 && Files.size(path) > binaryValidLength) {
+                System.err.println("Warning: Removing " + (Files.size(path) - binaryValidLength)
+                        + " bytes of a truncated entry at the end of " + transactionsFile);
+                try (FileChannel repair = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    repair.truncate(binaryValidLength);
+                }
+            }
+            binaryValidLength = -1; // from here on our own appends keep the tail whole
+            journal = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            appendsSinceSync = 0;
+            return journal;
+        }
+
+        boolean needsLineBreak = !endsWithLineBreak(path);
+        boolean empty = !Files.exists(path) || Files.size(path) == 0;
+        journal = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (needsLineBreak) {
+            journal.write(ByteBuffer.wrap(System.lineSeparator().getBytes(Charset.defaultCharset())));
+        }
+        if (empty) {
+            // A new file starts out in the format a full save would write
+            fileReferences = categoryReferences;
+            if (fileReferences) {
+                journal.write(ByteBuffer.wrap((CATEGORY_REFERENCES_HEADER + System.lineSeparator())
+                        .getBytes(Charset.defaultCharset())));
+            }
+        }
+        appendsSinceSync = 0;
+        return journal;
+    }
+
+    // An append-mode channel cannot be read, so check the last byte separately
+    private boolean endsWithLineBreak(Path file) throws IOException {
+        if (!Files.exists(file)) return true;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /** Flushes pending appends (if the sync policy requires it) and releases the file handle */
+    public synchronized void closeJournal() {
+        if (journal == null) return;
+        try {
+            if (journal.isOpen()) {
+                if (syncPolicy != SyncPolicy.NEVER && appendsSinceSync > 0) {
+                    journal.force(false);
+                }
+                journal.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not close transactions file: " + e.getMessage());
+        } finally {
+            journal = null;
+            appendsSinceSync = 0;
+        }
+    }
+
+    // Enhanced validation - let Transaction class handle its own validation
+    private boolean isWritable(Transaction t) {
+        if (t == null) {
+            System.err.println("Warning: Skipping null transaction");
+            return false;
+        }
+        if (t.getId() <= 0) {
+            System.err.println("Warning: Skipping transaction with invalid ID: " + t.getId());
+            return false;
+        }
+        if (t.getAmount() <= 0) {
+            System.err.println("Warning: Skipping transaction with invalid amount: " + t.getAmount());
+            return false;
+        }
+        if (t.getDescription() == null || t.getDescription().trim().isEmpty()) {
+            System.err.println("Warning: Skipping transaction with invalid description");
+            return false;
+        }
+        return true;
+    }
+
     
-    // Loads transactions from the file.
+    // Loads transactions from the file, detecting text or binary format.
     // Skips invalid lines but continues reading other lines.
-    public List<Transaction> loadTransactions() throws DataFileException {
+    public synchronized List<Transaction> loadTransactions() throws DataFileException {
+        long start = System.nanoTime();
+        LoadEvent event = new LoadEvent();
+        event.begin();
+        List<Transaction> loaded = readTransactions();
+        finishLoad(start, event, 0, loaded.size());
+        return loaded;
+    }
+
+    private List<Transaction> readTransactions() throws DataFileException {
         List<Transaction> transactions = new ArrayList<>();
-        File file = new File(TRANSACTIONS_FILE);
+        File file = new File(transactionsFile);
 
         if (!file.exists()) {
             System.out.println("No existing data found. Starting fresh");
             return transactions;
         }
+        closeJournal();
+        try {
+            if (BinaryTransactionFormat.isBinary(file.toPath())) {
+                return loadBinary(file);
+            }
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read transactions file", e);
+        }
+        fileFormat = StorageFormat.TEXT;
+        storageFormat = StorageFormat.TEXT;
+        fileReferences = false;
+        if (file.length() >= PARALLEL_LOAD_THRESHOLD) {
+            return readTransactionsParallel();
+        }
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
@@ -96,46 +541,413 @@ public class FileManager {
             while ((line = reader.readLine()) != null) {
                 lineNo++;
                 if (line.trim().isEmpty()) continue;
+                if (lineNo == 1 && line.equals(CATEGORY_REFERENCES_HEADER)) {
+                    fileReferences = true;
+                    continue;
+                }
                 
                 try {
                     Transaction t = Transaction.fromFileFormat(line);
                     transactions.add(t);
                     validTransactions++;
                 } catch (IllegalArgumentException e) {
-                    System.err.println("Skipping invalid transaction (line " + lineNo + "): " + line);
-                    System.err.println("  Reason: " + e.getMessage());
+                    reportInvalidLine(lineNo, line, e.getMessage());
                     invalidTransactions++;
                 }
             }
             
-            System.out.printf("Loaded %d valid transactions", validTransactions);
-            if (invalidTransactions > 0) {
-                System.out.printf(" (%d invalid lines skipped)", invalidTransactions);
-            }
-            System.out.println();
+            reportLoaded(validTransactions, invalidTransactions);
             
         } catch (IOException e) {
             throw new DataFileException("Failed to read transactions file", e);
         }
 
-        if (transactions.isEmpty() && new File(TRANSACTIONS_FILE).length() > 0) {
+        if (transactions.isEmpty() && new File(transactionsFile).length() > 0) {
             System.out.println("Warning: File found but no valid transactions loaded.");
         }
         
-        return transactions;
+        return resolveCategories(transactions);
     }
 
-    /** Simple restore from backup method (optional, not used automatically) */
-    public void restoreFromBackup() throws DataFileException {
-        File backup = new File(BACKUP_FILE);
-        File dest = new File(TRANSACTIONS_FILE);
-        if (!backup.exists()) throw new DataFileException("Backup file not found");
+    /**
+     * Loads transactions by memory-mapping the file and parsing it in chunks
+     * on the common fork-join pool. Same result and same reporting of
+     * invalid lines as the serial loader, in file order.
+     */
+    public synchronized List<Transaction> loadTransactionsParallel() throws DataFileException {
+        long start = System.nanoTime();
+        LoadEvent event = new LoadEvent();
+        event.begin();
+        List<Transaction> loaded = readTransactionsParallel();
+        finishLoad(start, event, 0, loaded.size());
+        return loaded;
+    }
 
+    private List<Transaction> readTransactionsParallel() throws DataFileException {
+        File file = new File(transactionsFile);
+        if (!file.exists()) {
+            System.out.println("No existing data found. Starting fresh");
+            return new ArrayList<>();
+        }
+        closeJournal();
+        try {
+            if (BinaryTransactionFormat.isBinary(file.toPath())) {
+                return loadBinary(file);
+            }
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read transactions file", e);
+        }
+        fileFormat = StorageFormat.TEXT;
+        storageFormat = StorageFormat.TEXT;
+
+        ParallelTransactionLoader.Result result;
+        try {
+            fileReferences = declaresCategoryReferences(file);
+            result = new ParallelTransactionLoader().load(file.toPath());
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read transactions file", e);
+        }
+
+        int invalid = 0;
+        for (ParallelTransactionLoader.InvalidLine bad : result.invalidLines) {
+            if (fileReferences && bad.lineNo == 1) continue; // the header is not a record
+            reportInvalidLine(bad.lineNo, bad.line, bad.reason);
+            invalid++;
+        }
+        reportLoaded(result.transactions.size(), invalid);
+
+        if (result.transactions.isEmpty() && file.length() > 0) {
+            System.out.println("Warning: File found but no valid transactions loaded.");
+        }
+        return resolveCategories(result.transactions);
+    }
+
+    private List<Transaction> loadBinary(File file) throws DataFileException {
+        BinaryTransactionFormat.ReadResult result;
+        try (InputStream in = new FileInputStream(file)) {
+            result = BinaryTransactionFormat.read(in);
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read binary transactions file", e);
+        }
+        for (String problem : result.problems) {
+            System.err.println(problem);
+        }
+        reportLoaded(result.transactions.size(), result.problems.size());
+
+        fileFormat = StorageFormat.BINARY;
+        storageFormat = StorageFormat.BINARY;
+        fileReferences = false;
+        binaryDictionary = result.dictionary;
+        binaryValidLength = result.validLength;
+        return result.transactions;
+    }
+
+    /**
+     * Opens a cursor that reads the file incrementally instead of building
+     * the whole list, returning only records accepted by filter (null = all).
+     * The caller must close it. Records appended while the cursor is open
+     * may or may not be seen.
+     */
+    public TransactionCursor openCursor(TransactionFilter filter) throws DataFileException {
+        try {
+            return TransactionCursor.open(new File(transactionsFile), filter, getCategoryManager());
+        } catch (IOException e) {
+            throw new DataFileException("Failed to open transactions file", e);
+        }
+    }
+
+    /** Lazily parsed stream of the file's records; use in try-with-resources so the file gets closed */
+    public Stream<Transaction> streamTransactions(TransactionFilter filter) throws DataFileException {
+        return openCursor(filter).stream();
+    }
+
+    public Stream<Transaction> streamTransactions() throws DataFileException {
+        return streamTransactions(TransactionFilter.all());
+    }
+
+    /**
+     * Income/expense totals for from..to inclusive (null = open-ended),
+     * computed in one streaming pass, e.g. a month-end report over a file
+     * far larger than the heap.
+     */
+    public PeriodTotals computeTotals(LocalDate from, LocalDate to) throws DataFileException {
+        long income = 0;
+        long expenses = 0;
+        int incomes = 0;
+        int expenseCount = 0;
+        try (TransactionCursor cursor = openCursor(TransactionFilter.all().between(from, to))) {
+            while (cursor.hasNext()) {
+                Transaction t = cursor.next();
+                if (t instanceof Income) {
+                    income += Money.toCents(t.getAmount());
+                    incomes++;
+                } else {
+                    expenses += Money.toCents(t.getAmount());
+                    expenseCount++;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw new DataFileException("Failed to read transactions file", e.getCause());
+        }
+        return new PeriodTotals(from, to, income, expenses, incomes, expenseCount);
+    }
+
+    private void reportInvalidLine(int lineNo, String line, String reason) {
+        System.err.println("Skipping invalid transaction (line " + lineNo + "): " + line);
+        System.err.println("  Reason: " + reason);
+    }
+
+    private void reportLoaded(int validTransactions, int invalidTransactions) {
+        lastLoadSkipped = invalidTransactions;
+        RECORDS_SKIPPED.add(invalidTransactions);
+        System.out.printf("Loaded %d valid transactions", validTransactions);
+        if (invalidTransactions > 0) {
+            System.out.printf(" (%d invalid lines skipped)", invalidTransactions);
+        }
+        System.out.println();
+    }
+
+    /**
+     * Backs up the records appended since the last backup (or the whole
+     * file if it is not covered by the current backup chain). Cheap when
+     * little changed; returns the new generation, or null if nothing did.
+     */
+    public synchronized BackupManager.Generation backup() throws DataFileException {
+        try {
+            return backups.backup();
+        } catch (IOException e) {
+            BACKUP_FAILURES.increment();
+            throw new DataFileException("Failed to back up transactions file", e);
+        }
+    }
+
+    // Backup failing should not prevent a save, but inform user
+    private boolean backupQuietly(boolean full) {
+        try {
+            if (full) backups.backupFull();
+            else backups.backup();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Warning: Could not create backup: " + e.getMessage());
+            BACKUP_FAILURES.increment();
+            return false;
+        }
+    }
+
+    /** Restores the file as it was before the last full save (optional, not used automatically) */
+    public synchronized void restoreFromBackup() throws DataFileException {
+        try {
+            BackupManager.Generation previous = backups.beforeLastRewrite();
+            if (previous == null) throw new DataFileException("Backup file not found");
+            restoreBackup(previous);
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read backup manifest", e);
+        }
+    }
+
+    /** Restores the file as it was at the newest backup taken at or before epochMillis */
+    public synchronized void restoreToTime(long epochMillis) throws DataFileException {
+        try {
+            BackupManager.Generation generation = backups.latestAt(epochMillis);
+            if (generation == null) throw new DataFileException("No backup that old");
+            restoreBackup(generation);
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read backup manifest", e);
+        }
+    }
+
+    /** Restores one backup generation; the current file is backed up first so the restore can be undone */
+    public synchronized void restoreBackup(BackupManager.Generation generation) throws DataFileException {
+        closeJournal();
+        File temp = new File(transactionsFile + ".tmp");
+        File dest = new File(transactionsFile);
+        try {
+            backups.restore(generation, temp.toPath());
+        } catch (IOException e) {
+            temp.delete();
+            throw new DataFileException("Failed to restore from backup", e);
+        }
+        backupQuietly(false);
+
+        invalidateSnapshot();
         try {
-            Files.copy(backup.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(temp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                ATOMIC_MOVE_FALLBACKS.increment();
+                Files.move(temp.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
             throw new DataFileException("Failed to restore from backup", e);
         }
+        // The backup may be in the other format
+        fileFormat = null;
+        fileReferences = false;
+        binaryDictionary = null;
+        binaryValidLength = -1;
+        backupQuietly(true);
+    }
+
+    /** Current size of the transactions file in bytes, including records appended through the journal */
+    public synchronized long getDataLength() {
+        try {
+            if (journal != null && journal.isOpen()) return journal.size();
+        } catch (IOException e) {
+            // fall back to the file length below
+        }
+        return new File(transactionsFile).length();
+    }
+
+    /** Changes every time the file is rewritten or restored; a snapshot is only valid for one generation */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * CRC32 of the (up to) 4KB just before offset, or -1 if the file is
+     * shorter than offset. Snapshots record it to detect that the file they
+     * cover was replaced or edited since.
+     */
+    public synchronized long tailChecksum(long offset) throws DataFileException {
+        File file = new File(transactionsFile);
+        if (offset < 0 || (offset > 0 && !file.exists()) || file.length() < offset) return -1;
+        int length = (int) Math.min(offset, 4096);
+        CRC32 crc = new CRC32();
+        if (length > 0) {
+            byte[] bytes = new byte[length];
+            try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+                in.seek(offset - length);
+                in.readFully(bytes);
+            } catch (IOException e) {
+                throw new DataFileException("Failed to read transactions file", e);
+            }
+            crc.update(bytes, 0, length);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Loads only the records stored at or after offset, i.e. the journal
+     * tail appended since a snapshot. Invalid lines are reported with line
+     * numbers counted from offset.
+     */
+    public synchronized List<Transaction> loadTransactionsFrom(long offset) throws DataFileException {
+        long start = System.nanoTime();
+        LoadEvent event = new LoadEvent();
+        event.begin();
+        List<Transaction> loaded = readTransactionsFrom(offset);
+        finishLoad(start, event, offset, loaded.size());
+        return loaded;
     }
-}
 
+    // Records load latency and emits the JFR event (fields are only filled in when it is recorded)
+    private void finishLoad(long start, LoadEvent event, long offset, int records) {
+        LOAD_LATENCY.recordSince(start);
+        if (event.shouldCommit()) {
+            event.file = transactionsFile;
+            event.format = fileFormat != null ? fileFormat.name() : storageFormat.name();
+            event.records = records;
+            event.skipped = lastLoadSkipped;
+            event.offset = offset;
+            event.bytes = new File(transactionsFile).length();
+            event.commit();
+        }
+        lastLoadSkipped = 0;
+    }
+
+    private List<Transaction> readTransactionsFrom(long offset) throws DataFileException {
+        File file = new File(transactionsFile);
+        List<Transaction> transactions = new ArrayList<>();
+        if (!file.exists()) return transactions;
+        closeJournal();
+        try {
+            if (BinaryTransactionFormat.isBinary(file.toPath())) {
+                BinaryTransactionFormat.ReadResult result;
+                try (InputStream in = new FileInputStream(file)) {
+                    result = BinaryTransactionFormat.read(in, offset);
+                }
+                for (String problem : result.problems) {
+                    System.err.println(problem);
+                }
+                reportLoaded(result.transactions.size(), result.problems.size());
+                fileFormat = StorageFormat.BINARY;
+                storageFormat = StorageFormat.BINARY;
+                fileReferences = false;
+                binaryDictionary = result.dictionary;
+                binaryValidLength = result.validLength;
+                return result.transactions;
+            }
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read binary transactions file", e);
+        }
+        fileFormat = StorageFormat.TEXT;
+        storageFormat = StorageFormat.TEXT;
+
+        try (FileInputStream in = new FileInputStream(file)) {
+            fileReferences = declaresCategoryReferences(file);
+            in.getChannel().position(offset);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()));
+            String line;
+            int lineNo = 0;
+            int invalidTransactions = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.trim().isEmpty()) continue;
+                if (offset == 0 && lineNo == 1 && fileReferences) continue; // the header
+                try {
+                    transactions.add(Transaction.fromFileFormat(line));
+                } catch (IllegalArgumentException e) {
+                    reportInvalidLine(lineNo, line, e.getMessage());
+                    invalidTransactions++;
+                }
+            }
+            reportLoaded(transactions.size(), invalidTransactions);
+        } catch (IOException e) {
+            throw new DataFileException("Failed to read transactions file", e);
+        }
+        return resolveCategories(transactions);
+    }
+
+    /**
+     * Moves a freshly written snapshot into place, unless the file was
+     * rewritten since the snapshot was taken (then the snapshot is dropped),
+     * and backs up the records appended since the last backup.
+     */
+    public synchronized boolean commitSnapshot(File written, long snapshotGeneration) throws DataFileException {
+        if (!commitSidecar(written, snapshotFile, snapshotGeneration)) return false;
+        // Snapshots are the periodic checkpoints, so take the incremental backup along with them
+        backupQuietly(false);
+        return true;
+    }
+
+    /** Moves a freshly written summary into place, with the same generation check as snapshots */
+    public synchronized boolean commitSummary(File written, long summaryGeneration) throws DataFileException {
+        return commitSidecar(written, summaryFile, summaryGeneration);
+    }
+
+    private boolean commitSidecar(File written, String target, long writtenGeneration) throws DataFileException {
+        if (writtenGeneration != generation) {
+            written.delete();
+            return false;
+        }
+        try {
+            try {
+                Files.move(written.toPath(), Paths.get(target), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                ATOMIC_MOVE_FALLBACKS.increment();
+                Files.move(written.toPath(), Paths.get(target), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new DataFileException("Failed to replace " + target, e);
+        }
+        return true;
+    }
+
+    // Snapshot and summary describe the old file contents, so they go as soon as the file is replaced
+    private void invalidateSnapshot() {
+        generation++;
+        new File(snapshotFile).delete();
+        new File(summaryFile).delete();
+    }
+}
@@ -0,0 +1,116 @@
+package com.financetracker.managers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcome of a CSV import: how many rows went in, and which rows were
+ * rejected and why. Only the first MAX_DETAILED_REJECTIONS rejections are
+ * kept row by row so a bad multi-million row file cannot exhaust memory;
+ * the per-reason counts always cover every row.
+ */
+public class ImportReport {
+    public static final int MAX_DETAILED_REJECTIONS = 1000;
+    private static final int MAX_ROW_TEXT = 200;
+
+    private int rowsRead;
+    private int imported;
+    private int rejectedCount;
+    private int merged;             // rows matching an existing transaction under the MERGE policy
+    private int flaggedDuplicates;  // rows added but flagged as possible duplicates
+    private double importedIncome;
+    private double importedExpenses;
+    private long elapsedMillis;
+    private final List<RejectedRow> rejections = new ArrayList<>();
+    private final Map<String, Integer> rejectionsByReason = new TreeMap<>();
+
+    /** One rejected row: its line number in the file, the reason and the row text */
+    public static class RejectedRow {
+        private final int lineNo;
+        private final String reason;
+        private final String row;
+
+        RejectedRow(int lineNo, String reason, String row) {
+            this.lineNo = lineNo;
+            this.reason = reason;
+            this.row = row;
+        }
+
+        public int getLineNo() { return lineNo; }
+        public String getReason() { return reason; }
+        public String getRow() { return row; }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNo + ": " + reason + " - " + row;
+        }
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void imported(double amount, boolean expense) {
+        imported++;
+        if (expense) importedExpenses += amount;
+        else importedIncome += amount;
+    }
+
+    void merged() {
+        merged++;
+    }
+
+    void flaggedDuplicate() {
+        flaggedDuplicates++;
+    }
+
+    void reject(int lineNo, String reason, String row) {
+        rejectedCount++;
+        rejectionsByReason.merge(reason, 1, Integer::sum);
+        if (rejections.size() < MAX_DETAILED_REJECTIONS) {
+            if (row != null && row.length() > MAX_ROW_TEXT) row = row.substring(0, MAX_ROW_TEXT) + "...";
+            rejections.add(new RejectedRow(lineNo, reason, row));
+        }
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getRowsRead() { return rowsRead; }
+    public int getImportedCount() { return imported; }
+    public int getRejectedCount() { return rejectedCount; }
+    public int getMergedCount() { return merged; }
+    public int getFlaggedDuplicateCount() { return flaggedDuplicates; }
+    public double getImportedIncome() { return importedIncome; }
+    public double getImportedExpenses() { return importedExpenses; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    /** The first MAX_DETAILED_REJECTIONS rejected rows, in file order */
+    public List<RejectedRow> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    /** Number of rejected rows per reason */
+    public Map<String, Integer> getRejectionsByReason() {
+        return Collections.unmodifiableMap(rejectionsByReason);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.US,
+                "Imported %d of %d rows in %d ms (income %.2f, expenses %.2f), %d rejected",
+                imported, rowsRead, elapsedMillis, importedIncome, importedExpenses, rejectedCount));
+        if (merged > 0) out.append(", ").append(merged).append(" merged with existing transactions");
+        if (flaggedDuplicates > 0) out.append(", ").append(flaggedDuplicates).append(" flagged as possible duplicates");
+        for (Map.Entry<String, Integer> reason : rejectionsByReason.entrySet()) {
+            out.append(System.lineSeparator()).append("  ").append(reason.getValue()).append(" x ").append(reason.getKey());
+        }
+        return out.toString();
+    }
+}
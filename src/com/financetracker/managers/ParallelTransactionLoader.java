@@ -0,0 +1,199 @@
+package com.financetracker.managers;
+
+import com.financetracker.models.Transaction;
+import com.financetracker.models.TransactionParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads the transactions file by memory-mapping it, splitting it into
+ * chunks on line boundaries and parsing the chunks on a fork-join pool.
+ * Results are merged back in file order, invalid lines keep their
+ * original (1-based) line numbers.
+ */
+class ParallelTransactionLoader {
+    private static final int MIN_CHUNK_SIZE = 1 << 20;          // 1 MB
+    private static final int MAX_CHUNK_SIZE = 64 << 20;        // 64 MB, keeps each mapping small
+    private static final int CHUNKS_PER_THREAD = 4;             // a few extra chunks for load balancing
+
+    private final ForkJoinPool pool;
+    private final Charset charset;
+
+    ParallelTransactionLoader() {
+        this(ForkJoinPool.commonPool(), Charset.defaultCharset());
+    }
+
+    ParallelTransactionLoader(ForkJoinPool pool, Charset charset) {
+        this.pool = pool;
+        this.charset = charset;
+    }
+
+    // A line that could not be parsed, reported the same way as the serial loader
+    static class InvalidLine {
+        final int lineNo;
+        final String line;
+        final String reason;
+
+        InvalidLine(int lineNo, String line, String reason) {
+            this.lineNo = lineNo;
+            this.line = line;
+            this.reason = reason;
+        }
+    }
+
+    static class Result {
+        final List<Transaction> transactions;
+        final List<InvalidLine> invalidLines;
+        int lineCount;
+
+        Result(List<Transaction> transactions, List<InvalidLine> invalidLines, int lineCount) {
+            this.transactions = transactions;
+            this.invalidLines = invalidLines;
+            this.lineCount = lineCount;
+        }
+
+        // Appends a result that follows this one in the file
+        Result append(Result next) {
+            transactions.addAll(next.transactions);
+            for (InvalidLine bad : next.invalidLines) {
+                invalidLines.add(new InvalidLine(bad.lineNo + lineCount, bad.line, bad.reason));
+            }
+            lineCount += next.lineCount;
+            return this;
+        }
+    }
+
+    Result load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new Result(new ArrayList<>(), new ArrayList<>(), 0);
+            }
+            List<long[]> chunks = split(channel, size);
+            return pool.invoke(new ChunkRangeTask(channel, chunks, 0, chunks.size()));
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw e;
+        }
+    }
+
+    // Splits [0, size) into chunks that all end right after a '\n' (or at EOF)
+    private List<long[]> split(FileChannel channel, long size) throws IOException {
+        long target = size / ((long) pool.getParallelism() * CHUNKS_PER_THREAD);
+        target = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, target));
+
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + target >= size ? size : nextLineStart(channel, start + target, size);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Line too long near offset " + start);
+            }
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        return chunks;
+    }
+
+    private long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long pos = from;
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return pos + i + 1;
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    // Divide-and-conquer over the chunk list so results merge in file order
+    private class ChunkRangeTask extends RecursiveTask<Result> {
+        private final FileChannel channel;
+        private final List<long[]> chunks;
+        private final int from;
+        private final int to;
+
+        ChunkRangeTask(FileChannel channel, List<long[]> chunks, int from, int to) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from == 1) {
+                long[] chunk = chunks.get(from);
+                try {
+                    return parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            int mid = (from + to) >>> 1;
+            ChunkRangeTask left = new ChunkRangeTask(channel, chunks, from, mid);
+            ChunkRangeTask right = new ChunkRangeTask(channel, chunks, mid, to);
+            right.fork();
+            Result leftResult = left.compute();
+            return leftResult.append(right.join());
+        }
+    }
+
+    private Result parseChunk(MappedByteBuffer bytes) throws CharacterCodingException {
+        // Chunks end on '\n', so decoding each one separately never splits a character
+        CharBuffer chars = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(bytes);
+        char[] text = chars.array();
+        int offset = chars.arrayOffset() + chars.position();
+        int end = offset + chars.remaining();
+
+        List<Transaction> transactions = new ArrayList<>();
+        List<InvalidLine> invalid = new ArrayList<>();
+        int lineNo = 0;
+        int lineStart = offset;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && text[lineEnd] != '\n') lineEnd++;
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && text[lineEnd - 1] == '\r') lineEnd--;
+            lineNo++;
+
+            // Parse straight out of the decoded buffer; only bad lines become Strings
+            if (!isBlank(text, lineStart, lineEnd)) {
+                try {
+                    transactions.add(TransactionParser.parse(chars, lineStart - offset, lineEnd - offset));
+                } catch (IllegalArgumentException e) {
+                    invalid.add(new InvalidLine(lineNo, new String(text, lineStart, lineEnd - lineStart), e.getMessage()));
+                }
+            }
+            lineStart = next;
+        }
+        return new Result(transactions, invalid, lineNo);
+    }
+
+    private static boolean isBlank(char[] text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text[i] > ' ') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,295 @@
+package com.financetracker.managers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.financetracker.exceptions.DataFileException;
+import com.financetracker.models.Transaction;
+
+/**
+ * Single background writer that takes persistence off the caller's path.
+ * Appends are queued and written in batches with one write (and at most
+ * one fsync) per batch; full rewrites are coalesced, so any number of
+ * queued rewrite requests costs a single rewrite.
+ *
+ * Callers trade a bounded durability window for throughput: anything
+ * queued is lost on a crash until flush() or close() returns.
+ */
+public final class PersistenceWriter {
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 50;
+    public static final int DEFAULT_MAX_BATCH = 1000;
+    // Submitters block once this many appends are waiting, which bounds memory
+    private static final int MAX_QUEUED = 64 * 1024;
+
+    // When an add is considered persisted
+    public enum DurabilityMode {
+        SYNC,           // written before the add returns (no writer thread)
+        GROUP_COMMIT,   // written and fsynced every maxDelay ms or maxBatch records, whichever comes first
+        ASYNC           // written as soon as the writer gets to it, fsync left to the file's sync policy
+    }
+
+    private final FileManager fileManager;
+    private final DurabilityMode mode;
+    private final long maxDelayNanos;
+    private final int maxBatch;
+    private final Rewrite rewrite;
+    private final Thread thread;
+
+    // Everything below is guarded by lock
+    private final Object lock = new Object();
+    private List<Transaction> pending = new ArrayList<>();
+    private boolean rewritePending;
+    private long firstPendingNanos;
+    private long submitted;     // sequence number of the last submitted item
+    private long completed;     // every item up to this sequence number is on disk
+    private long flushTarget;   // flush() callers are waiting for this sequence number
+    private boolean appending;  // the writer is writing an append batch right now
+    private boolean rewriting;  // the writer is running a rewrite right now
+    private boolean closed;
+    private DataFileException failure; // first failure since the last flush()
+
+    /**
+     * Writes the full current state. Runs on the writer thread and, like any
+     * outside caller that rewrites the file, must call discardQueued() where
+     * its state is captured and markWritten() when done.
+     */
+    public interface Rewrite {
+        void run() throws DataFileException;
+    }
+
+    public PersistenceWriter(FileManager fileManager, DurabilityMode mode, Rewrite rewrite) {
+        this(fileManager, mode, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_MAX_BATCH, rewrite);
+    }
+
+    public PersistenceWriter(FileManager fileManager, DurabilityMode mode, long maxDelayMillis, int maxBatch,
+                             Rewrite rewrite) {
+        if (fileManager == null || rewrite == null) {
+            throw new IllegalArgumentException("File manager and rewrite action are required");
+        }
+        if (mode == null || mode == DurabilityMode.SYNC) {
+            throw new IllegalArgumentException("A writer is only needed for GROUP_COMMIT or ASYNC");
+        }
+        if (maxDelayMillis < 0 || maxBatch < 1) {
+            throw new IllegalArgumentException("Delay cannot be negative and batch size must be at least 1");
+        }
+        this.fileManager = fileManager;
+        this.mode = mode;
+        this.maxDelayNanos = maxDelayMillis * 1_000_000L;
+        this.maxBatch = maxBatch;
+        this.rewrite = rewrite;
+        this.thread = new Thread(this::run, "persistence-writer");
+        this.thread.setDaemon(true); // close() drains the queue; a forgotten writer must not block exit
+        this.thread.start();
+    }
+
+    public DurabilityMode getMode() { return mode; }
+
+    /** Queues an append; blocks only while the queue is full */
+    public void submit(Transaction t) {
+        synchronized (lock) {
+            checkOpen();
+            boolean interrupted = false;
+            while (pending.size() >= MAX_QUEUED && !closed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true; // the record is already in memory, so it must still be queued
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            checkOpen();
+            if (pending.isEmpty()) firstPendingNanos = System.nanoTime();
+            pending.add(t);
+            submitted++;
+            if (mode == DurabilityMode.ASYNC || pending.size() >= maxBatch || pending.size() == 1) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /** Queues several appends at once, in order */
+    public void submitAll(List<? extends Transaction> batch) {
+        for (Transaction t : batch) {
+            submit(t);
+        }
+    }
+
+    /** Queues a full rewrite; folds into one already waiting */
+    public void submitRewrite() {
+        synchronized (lock) {
+            checkOpen();
+            rewritePending = true;
+            submitted++;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until everything submitted so far is on disk. Throws the first
+     * write failure since the previous flush, if any. Must not be called
+     * while holding a lock the rewrite action needs.
+     */
+    public void flush() throws DataFileException {
+        if (Thread.currentThread() == thread) return;
+        synchronized (lock) {
+            long target = submitted;
+            flushTarget = Math.max(flushTarget, target);
+            lock.notifyAll();
+            boolean interrupted = false;
+            while (completed < target && thread.isAlive()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            DataFileException e = failure;
+            failure = null;
+            if (e != null) throw e;
+        }
+    }
+
+    /**
+     * Waits until every queued append is on disk without running a queued
+     * rewrite, and returns false straight away if a rewrite is queued or
+     * running. Unlike flush() this is safe while holding a lock the rewrite
+     * needs, provided no new appends can be submitted meanwhile.
+     */
+    public boolean awaitAppends() {
+        synchronized (lock) {
+            flushTarget = Math.max(flushTarget, submitted); // no point holding a group commit open
+            lock.notifyAll();
+            boolean interrupted = false;
+            while ((appending || !pending.isEmpty()) && !rewritePending && !rewriting && thread.isAlive()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            return !rewritePending && !rewriting && !appending && pending.isEmpty();
+        }
+    }
+
+    /**
+     * Drops everything still queued because the caller is about to write
+     * the full state itself, which covers it. Waits for an append batch
+     * that is already being written, so it cannot land after the rewrite.
+     * Returns the sequence number to pass to markWritten() once the
+     * caller's rewrite is done.
+     */
+    public long discardQueued() {
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (appending && Thread.currentThread() != thread) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            pending = new ArrayList<>();
+            rewritePending = false;
+            lock.notifyAll(); // room in the queue again
+            return submitted;
+        }
+    }
+
+    /** Records that everything up to sequence (from discardQueued) has been written */
+    public void markWritten(long sequence) {
+        synchronized (lock) {
+            if (sequence > completed) {
+                completed = sequence;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /** Drains the queue and stops the writer thread */
+    public void close() throws DataFileException {
+        try {
+            flush();
+        } finally {
+            synchronized (lock) {
+                closed = true;
+                lock.notifyAll();
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Persistence writer is closed");
+    }
+
+    private void run() {
+        while (true) {
+            List<Transaction> batch;
+            boolean doRewrite;
+            long batchEnd;
+            synchronized (lock) {
+                try {
+                    while (!closed && !hasWork()) {
+                        lock.wait();
+                    }
+                    // Group commit: hold the batch open until it is full, old enough or someone flushes
+                    while (!closed && mode == DurabilityMode.GROUP_COMMIT && !rewritePending
+                            && !pending.isEmpty() && pending.size() < maxBatch && flushTarget <= completed) {
+                        long waitNanos = firstPendingNanos + maxDelayNanos - System.nanoTime();
+                        if (waitNanos <= 0) break;
+                        lock.wait(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+                    }
+                } catch (InterruptedException e) {
+                    // nobody interrupts this thread on purpose; just look at the queue again
+                }
+                if (!hasWork()) {
+                    if (closed) return;
+                    continue;
+                }
+                doRewrite = rewritePending;
+                batch = pending;
+                batchEnd = submitted;
+                pending = new ArrayList<>();
+                rewritePending = false;
+                appending = !doRewrite;
+                rewriting = doRewrite;
+                lock.notifyAll(); // submitters waiting for room
+            }
+
+            try {
+                if (doRewrite) {
+                    // The rewrite writes the full in-memory state, which includes every queued append
+                    rewrite.run();
+                } else {
+                    fileManager.appendTransactions(batch, mode == DurabilityMode.GROUP_COMMIT);
+                }
+            } catch (DataFileException | RuntimeException e) {
+                System.err.println("Warning: Could not save data - " + e.getMessage());
+                synchronized (lock) {
+                    if (failure == null) {
+                        failure = e instanceof DataFileException ? (DataFileException) e
+                                : new DataFileException("Background save failed", e);
+                    }
+                }
+            }
+
+            synchronized (lock) {
+                appending = false;
+                rewriting = false;
+                if (batchEnd > completed) completed = batchEnd;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private boolean hasWork() {
+        return rewritePending || !pending.isEmpty();
+    }
+}
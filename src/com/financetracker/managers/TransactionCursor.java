@@ -0,0 +1,143 @@
+package com.financetracker.managers;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.financetracker.metrics.MetricsRegistry;
+import com.financetracker.models.Transaction;
+
+/**
+ * Reads a transactions file one record at a time, in file order, with
+ * memory bounded by the read buffer (plus the dictionary for binary files).
+ * Records are parsed lazily as the cursor advances and the filter is
+ * applied to the raw record first, so skipped records are never built.
+ *
+ * Must be closed; stream() closes the cursor when the stream is closed.
+ * Read errors surface as UncheckedIOException from hasNext()/next().
+ */
+public final class TransactionCursor implements Iterator<Transaction>, Closeable {
+    private final InputStream in;
+    private final BufferedReader textReader;                      // text files
+    private final BinaryTransactionFormat.Reader binaryReader;    // binary files
+    private final TransactionFilter filter;
+    private final CategoryManager categories;                    // resolves "#id" categories, null = none
+    private boolean references;                                  // the file starts with the references header
+
+    private Transaction nextTransaction;
+    private boolean finished;
+    private int lineNo;
+    private int invalidCount;
+
+    private TransactionCursor(InputStream in, BufferedReader textReader,
+                              BinaryTransactionFormat.Reader binaryReader, TransactionFilter filter,
+                              CategoryManager categories) {
+        this.in = in;
+        this.textReader = textReader;
+        this.binaryReader = binaryReader;
+        this.filter = filter;
+        this.categories = categories;
+        this.finished = in == null;
+    }
+
+    static TransactionCursor open(File file, TransactionFilter filter, CategoryManager categories) throws IOException {
+        if (filter == null) filter = TransactionFilter.all();
+        if (!file.exists()) {
+            return new TransactionCursor(null, null, null, filter, categories);
+        }
+        if (BinaryTransactionFormat.isBinary(file.toPath())) {
+            InputStream in = new FileInputStream(file);
+            try {
+                return new TransactionCursor(in, null, new BinaryTransactionFormat.Reader(in), filter, categories);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+        InputStream in = new FileInputStream(file);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()));
+        return new TransactionCursor(in, reader, null, filter, categories);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextTransaction == null && !finished) {
+            try {
+                nextTransaction = binaryReader != null ? binaryReader.next(filter) : nextText();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read transactions file", e);
+            }
+            if (nextTransaction == null) {
+                finished = true;
+                close();
+            }
+        }
+        return nextTransaction != null;
+    }
+
+    @Override
+    public Transaction next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Transaction t = nextTransaction;
+        nextTransaction = null;
+        return t;
+    }
+
+    private Transaction nextText() throws IOException {
+        String line;
+        while ((line = textReader.readLine()) != null) {
+            lineNo++;
+            if (lineNo == 1 && line.equals(FileManager.CATEGORY_REFERENCES_HEADER)) {
+                references = true;
+                continue;
+            }
+            if (line.trim().isEmpty() || !filter.mayMatch(line)) continue;
+            try {
+                Transaction t = Transaction.fromFileFormat(line);
+                if (references && categories != null) FileManager.resolveCategory(t, categories);
+                if (filter.matches(t)) return t;
+            } catch (IllegalArgumentException e) {
+                System.err.println("Skipping invalid transaction (line " + lineNo + "): " + line);
+                System.err.println("  Reason: " + e.getMessage());
+                invalidCount++;
+                MetricsRegistry.global().counter(MetricsRegistry.RECORDS_SKIPPED).increment();
+            }
+        }
+        return null;
+    }
+
+    /** Invalid text lines skipped so far */
+    public int getInvalidCount() {
+        return invalidCount;
+    }
+
+    /** Sequential stream over the remaining records; closing the stream closes the cursor */
+    public Stream<Transaction> stream() {
+        Spliterator<Transaction> spliterator = Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not close transactions file: " + e.getMessage());
+        }
+    }
+}
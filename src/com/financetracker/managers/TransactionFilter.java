@@ -0,0 +1,140 @@
+package com.financetracker.managers;
+
+import java.time.LocalDate;
+
+import com.financetracker.models.Expense;
+import com.financetracker.models.Transaction;
+
+/**
+ * Which transactions a read or search should return: an optional date
+ * range (inclusive, null = open-ended), an optional type and an optional
+ * category (case-insensitive). Checked against the raw record before a
+ * Transaction is built, so records that are filtered out cost almost
+ * nothing.
+ *
+ * Immutable; each method returns a new filter.
+ */
+public final class TransactionFilter {
+    private static final TransactionFilter ALL = new TransactionFilter(null, null, null, null);
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Boolean expense; // null = both types
+    private final String category; // null = any
+
+    // Dates as yyyyMMdd ints, for comparing raw text dates without parsing them
+    private final int fromKey;
+    private final int toKey;
+
+    private TransactionFilter(LocalDate from, LocalDate to, Boolean expense, String category) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        this.from = from;
+        this.to = to;
+        this.expense = expense;
+        this.category = category;
+        this.fromKey = from != null ? dateKey(from) : Integer.MIN_VALUE;
+        this.toKey = to != null ? dateKey(to) : Integer.MAX_VALUE;
+    }
+
+    public static TransactionFilter all() {
+        return ALL;
+    }
+
+    public TransactionFilter between(LocalDate from, LocalDate to) {
+        return new TransactionFilter(from, to, expense, category);
+    }
+
+    public TransactionFilter incomeOnly() {
+        return new TransactionFilter(from, to, Boolean.FALSE, category);
+    }
+
+    public TransactionFilter expensesOnly() {
+        return new TransactionFilter(from, to, Boolean.TRUE, category);
+    }
+
+    public TransactionFilter inCategory(String category) {
+        String trimmed = category != null ? category.trim() : "";
+        return new TransactionFilter(from, to, expense, trimmed.isEmpty() ? null : trimmed);
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public String getCategory() { return category; }
+    public boolean includesIncome() { return expense == null || !expense; }
+    public boolean includesExpenses() { return expense == null || expense; }
+
+    public boolean matches(Transaction t) {
+        if (expense != null && expense != (t instanceof Expense)) return false;
+        if (category != null && !category.equalsIgnoreCase(t.getCategory())) return false;
+        if (from != null && t.getDate().isBefore(from)) return false;
+        return to == null || !t.getDate().isAfter(to);
+    }
+
+    // Exact check for a binary record, from its flags and epoch day
+    boolean matches(boolean isExpense, int epochDay) {
+        if (expense != null && expense != isExpense) return false;
+        if (from != null && epochDay < from.toEpochDay()) return false;
+        return to == null || epochDay <= to.toEpochDay();
+    }
+
+    /**
+     * Cheap check on a raw text line (id|TYPE|amount|description|category|date...).
+     * Only says false when the line certainly does not match; anything
+     * unusual is left to the parser and matches(Transaction).
+     */
+    boolean mayMatch(CharSequence line) {
+        if (this == ALL) return true;
+        int typeStart = -1, typeEnd = -1, dateStart = -1, dateEnd = line.length();
+        int field = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) != '|') continue;
+            field++;
+            if (field == 1) typeStart = i + 1;
+            else if (field == 2) typeEnd = i;
+            else if (field == 5) dateStart = i + 1;
+            else if (field == 6) { dateEnd = i; break; }
+        }
+        if (field < 5) return true; // malformed, let the parser report it
+
+        if (expense != null) {
+            String unwanted = expense ? "INCOME" : "EXPENSE";
+            if (keywordMatches(line, typeStart, typeEnd, unwanted)) return false;
+        }
+        if (from != null || to != null) {
+            while (dateStart < dateEnd && line.charAt(dateStart) <= ' ') dateStart++;
+            while (dateEnd > dateStart && line.charAt(dateEnd - 1) <= ' ') dateEnd--;
+            int key = rawDateKey(line, dateStart, dateEnd);
+            if (key >= 0 && (key < fromKey || key > toKey)) return false;
+        }
+        return true;
+    }
+
+    private static boolean keywordMatches(CharSequence line, int start, int end, String keyword) {
+        while (start < end && line.charAt(start) <= ' ') start++;
+        while (end > start && line.charAt(end - 1) <= ' ') end--;
+        if (end - start != keyword.length()) return false;
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toUpperCase(line.charAt(start + i)) != keyword.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // yyyy-MM-dd as yyyyMMdd, or -1 if the field has any other shape
+    private static int rawDateKey(CharSequence line, int start, int end) {
+        if (end - start != 10 || line.charAt(start + 4) != '-' || line.charAt(start + 7) != '-') return -1;
+        int key = 0;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '-') continue;
+            if (c < '0' || c > '9') return -1;
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+
+    private static int dateKey(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+}
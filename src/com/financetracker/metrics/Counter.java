@@ -0,0 +1,36 @@
+package com.financetracker.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Monotonic event count; cheap to bump from many threads at once */
+public final class Counter {
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long n) {
+        count.add(n);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    void reset() {
+        count.reset();
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + get();
+    }
+}
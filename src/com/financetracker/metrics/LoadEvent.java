@@ -0,0 +1,35 @@
+package com.financetracker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for one load of a transactions file */
+@Name("financetracker.Load")
+@Label("Transactions Load")
+@Category({ "Finance Tracker", "Persistence" })
+@Description("Read and parse of a transactions file, in full or from an offset")
+public class LoadEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Format")
+    public String format;
+
+    @Label("Records Loaded")
+    public int records;
+
+    @Label("Records Skipped")
+    public int skipped;
+
+    @Label("Start Offset")
+    @DataAmount
+    public long offset;
+
+    @Label("File Size")
+    @DataAmount
+    public long bytes;
+}
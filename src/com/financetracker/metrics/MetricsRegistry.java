@@ -0,0 +1,76 @@
+package com.financetracker.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named counters and latency histograms, created on first use. The
+ * persistence and account code report into global(); read it with
+ * getCounters()/getHistograms() or print report().
+ *
+ * Save and load are also emitted as JFR events (SaveEvent, LoadEvent),
+ * which cost nothing unless a recording is running.
+ */
+public final class MetricsRegistry {
+    // Latencies
+    public static final String FILE_SAVE = "file.save";
+    public static final String FILE_LOAD = "file.load";
+    public static final String ACCOUNT_ADD = "account.add";
+    public static final String ACCOUNT_ADD_BATCH = "account.addBatch";
+
+    // Counts
+    public static final String RECORDS_WRITTEN = "records.written";
+    public static final String RECORDS_SKIPPED = "records.skipped";
+    public static final String BACKUP_FAILURES = "backup.failures";
+    public static final String ATOMIC_MOVE_FALLBACKS = "atomicMove.fallbacks";
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /** Current counter values, sorted by name */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Counter counter : counters.values()) {
+            values.put(counter.getName(), counter.get());
+        }
+        return values;
+    }
+
+    /** Histograms sorted by name; they keep recording, so read them right away */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /** Zeroes every metric; names stay registered */
+    public void reset() {
+        for (Counter counter : counters.values()) counter.reset();
+        for (LatencyHistogram histogram : histograms.values()) histogram.reset();
+    }
+
+    /** One line per metric, histograms first */
+    public String report() {
+        StringBuilder out = new StringBuilder("=== METRICS ===").append(System.lineSeparator());
+        for (LatencyHistogram histogram : getHistograms().values()) {
+            out.append(histogram).append(System.lineSeparator());
+        }
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            out.append(counter.getKey()).append(": ").append(counter.getValue()).append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.financetracker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for one full rewrite of a transactions file */
+@Name("financetracker.Save")
+@Label("Transactions Save")
+@Category({ "Finance Tracker", "Persistence" })
+@Description("Full rewrite of a transactions file through a temp file and a move")
+public class SaveEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Format")
+    public String format;
+
+    @Label("Records Written")
+    public int records;
+
+    @Label("Records Skipped")
+    public int skipped;
+
+    @Label("File Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Backup Failed")
+    public boolean backupFailed;
+}
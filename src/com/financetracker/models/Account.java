@@ -1,34 +1,246 @@
 package com.financetracker.models;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.financetracker.exceptions.DataFileException;
+import com.financetracker.exceptions.DuplicateTransactionException;
 import com.financetracker.exceptions.InsufficientFundsException;
 import com.financetracker.exceptions.InvalidTransactionException;
+import com.financetracker.managers.BudgetManager;
+import com.financetracker.managers.CategoryManager;
 import com.financetracker.managers.FileManager;
+import com.financetracker.managers.PersistenceWriter;
+import com.financetracker.managers.PersistenceWriter.DurabilityMode;
+import com.financetracker.managers.TransactionFilter;
+import com.financetracker.metrics.LatencyHistogram;
+import com.financetracker.metrics.MetricsRegistry;
 
 public class Account {
     private String accountName;
-    private double balance;
-    private List<Transaction> transactions;
+    private TransactionStore transactions; // columnar history, Transaction objects built on demand
+    private DateIndex dateIndex;           // store positions sorted by date
+    private CategoryManager categoryManager;
+    private final BudgetManager budgets;
+    private RollupIndex rollupIndex;       // per category / source / payment method totals
+    private AggregateCube aggregateCube;   // per-day totals with prefix sums
+    private DescriptionIndex descriptionIndex; // description tokens -> store positions
+    private DuplicateDetector duplicates;      // fingerprints of stored records, catches re-imports
+    private volatile DuplicateDetector.Policy duplicatePolicy = DuplicateDetector.Policy.FLAG;
+    private final Set<Integer> flaggedDuplicates = new HashSet<>(); // ids added as possible duplicates (not persisted)
     private FileManager fileManager;
+    private volatile boolean journalMode; // append each new transaction instead of rewriting the file
+    private volatile PersistenceWriter writer; // background persistence, null in SYNC mode
+
+    // Guards the store, indexes and aggregates. Adds take the write lock (and persist while
+    // holding it, so the file sees transactions in the same order as memory); queries share
+    // the read lock.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Balance in cents. Expenses reserve funds with a CAS before touching the store, so the
+    // check and the debit are one atomic step and concurrent expenses can never overdraw.
+    private final AtomicLong balanceCents = new AtomicLong();
+
+    // Console rendering: rows are formatted into a reused buffer and written in batches
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int DISPLAY_BATCH = 500;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final ThreadLocal<StringBuilder> DISPLAY_BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
+    // addAll() reasons for rows that match an existing transaction
+    public static final String DUPLICATE_REJECTED = "Duplicate transaction";
+    public static final String DUPLICATE_MERGED = "Merged with an existing transaction";
+    private static final long MERGED = -1; // add() result when the record was merged into an existing one
+
+    // Time from entering add() to the transaction being persisted, lock waits included
+    private static final LatencyHistogram ADD_LATENCY = MetricsRegistry.global().histogram(MetricsRegistry.ACCOUNT_ADD);
+    private static final LatencyHistogram ADD_BATCH_LATENCY =
+            MetricsRegistry.global().histogram(MetricsRegistry.ACCOUNT_ADD_BATCH);
+
+    // Fixed per-account cost (category manager, indexes, file manager) for memory estimates
+    private static final long ACCOUNT_OVERHEAD_BYTES = 8 * 1024;
+
+    // Running aggregates in cents, kept in sync on every add and load so summaries are O(1).
+    // Written under the write lock, volatile so the getters can read them without locking.
+    private volatile long totalIncomeCents;
+    private volatile long totalExpenseCents;
+    private volatile int incomeCount;
+    private volatile int expenseCount;
+
+    // Snapshots: startup restores the last snapshot and replays only the records appended to the
+    // transactions file after it. A background check writes a new one once the tail is big or old enough.
+    public static final long DEFAULT_SNAPSHOT_TAIL_BYTES = 1L << 20;
+    public static final long DEFAULT_SNAPSHOT_MAX_AGE_MILLIS = 10 * 60 * 1000L;
+    private static final long SNAPSHOT_CHECK_MILLIS = 30 * 1000L;
+    private volatile boolean autoSnapshot = true;
+    private volatile long snapshotTailBytes = DEFAULT_SNAPSHOT_TAIL_BYTES;
+    private volatile long snapshotMaxAgeMillis = DEFAULT_SNAPSHOT_MAX_AGE_MILLIS;
+    private final Object snapshotLock = new Object(); // guards the three fields below and snapshot writes
+    private long snapshotOffset;      // transactions file length covered by the last snapshot
+    private long snapshotGeneration;  // FileManager generation that snapshot belongs to
+    private long lastSnapshotMillis;
+    private ScheduledFuture<?> snapshotTask;
+
+    // Summary-only start: totals come from the summary file and the history is loaded on first use
+    private volatile boolean historyLoaded = true;
+    private int summaryMaxId; // highest id while the history is not loaded
 
     public Account(String accountName) {
+        this(accountName, new FileManager());
+    }
+
+    // Account backed by a specific data file
+    public Account(String accountName, FileManager fileManager) {
+        this(accountName, fileManager, false);
+    }
+
+    /**
+     * With summaryOnly, the account starts from the checksummed summary
+     * file alone (plus any records appended after it), so the balance and
+     * totals are available at once; the history is loaded the first time
+     * something needs it. Without a valid summary it loads in full.
+     */
+    public Account(String accountName, FileManager fileManager, boolean summaryOnly) {
         if (accountName == null || accountName.trim().isEmpty()) {
             throw new IllegalArgumentException("Account name cannot be empty");
         }
+        if (fileManager == null) {
+            throw new IllegalArgumentException("File manager cannot be null");
+        }
         this.accountName = accountName;
-        this.balance = 0.0;
-        this.transactions = new ArrayList<>();
-        this.fileManager = new FileManager();
-        loadData();
+        this.transactions = new TransactionStore();
+        this.dateIndex = new DateIndex(transactions);
+        this.categoryManager = fileManager.getCategoryManager(); // shared with every account in the same directory
+        this.rollupIndex = new RollupIndex(transactions, categoryManager);
+        this.aggregateCube = new AggregateCube(transactions);
+        this.descriptionIndex = new DescriptionIndex(transactions);
+        this.duplicates = new DuplicateDetector(transactions, dateIndex);
+        this.fileManager = fileManager;
+        this.budgets = new BudgetManager(fileManager.getBudgetsFile());
+        this.journalMode = true;
+        if (!summaryOnly || !loadSummary()) {
+            loadData();
+        }
+        this.snapshotTask = SnapshotScheduler.schedule(this, SNAPSHOT_CHECK_MILLIS);
     }
 
     public String getAccountName() { return accountName; }
-    public double getBalance() { return balance; }
-    public int getTransactionCount() { return transactions.size(); }
+    public double getBalance() { return Money.fromCents(balanceCents.get()); }
+    public int getTransactionCount() { return incomeCount + expenseCount; }
+    public int getIncomeCount() { return incomeCount; }
+    public int getExpenseCount() { return expenseCount; }
+    public CategoryManager getCategoryManager() { return categoryManager; }
+    public BudgetManager getBudgetManager() { return budgets; }
+    public boolean isHistoryLoaded() { return historyLoaded; }
+    public boolean isJournalMode() { return journalMode; }
+    public void setJournalMode(boolean journalMode) { this.journalMode = journalMode; }
+    public DurabilityMode getDurabilityMode() {
+        PersistenceWriter w = writer;
+        return w != null ? w.getMode() : DurabilityMode.SYNC;
+    }
+
+    public void setDurabilityMode(DurabilityMode mode) {
+        setDurabilityMode(mode, PersistenceWriter.DEFAULT_MAX_DELAY_MILLIS, PersistenceWriter.DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Chooses when adds reach the disk. SYNC (the default) persists before
+     * the add returns. GROUP_COMMIT and ASYNC hand the write to a background
+     * thread, GROUP_COMMIT batching up to maxBatch records or maxDelayMillis
+     * and fsyncing each batch; use flush() or close() to drain it.
+     */
+    public void setDurabilityMode(DurabilityMode mode, long maxDelayMillis, int maxBatch) {
+        if (mode == null) throw new IllegalArgumentException("Durability mode cannot be null");
+        PersistenceWriter next = mode == DurabilityMode.SYNC ? null
+                : new PersistenceWriter(fileManager, mode, maxDelayMillis, maxBatch, this::writeFullState);
+        PersistenceWriter previous;
+        lock.writeLock().lock();
+        try {
+            previous = writer;
+            // Appends of the old writer must land before anything written the new way. A queued
+            // rewrite does not matter: it writes the full state whenever it runs.
+            if (previous != null) previous.awaitAppends();
+            writer = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (previous != null) {
+            try {
+                previous.close(); // outside the lock, a queued rewrite needs the read lock
+            } catch (DataFileException e) {
+                System.err.println("Warning: Could not save data - " + e.getMessage());
+            }
+        }
+    }
+
+    public DuplicateDetector.Policy getDuplicatePolicy() { return duplicatePolicy; }
+
+    /** What adds and imports do with a transaction matching an existing one; FLAG by default */
+    public void setDuplicatePolicy(DuplicateDetector.Policy policy) {
+        if (policy == null) throw new IllegalArgumentException("Duplicate policy cannot be null");
+        this.duplicatePolicy = policy;
+    }
+
+    public boolean isFlaggedDuplicate(int id) {
+        lock.readLock().lock();
+        try {
+            return flaggedDuplicates.contains(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Transactions added as possible duplicates under the FLAG policy since this account was opened */
+    public List<Transaction> getFlaggedDuplicates() {
+        lock.readLock().lock();
+        try {
+            List<Transaction> result = new ArrayList<>();
+            if (flaggedDuplicates.isEmpty()) return result;
+            for (int pos = 0; pos < transactions.size(); pos++) {
+                if (flaggedDuplicates.contains(transactions.getId(pos))) result.add(transactions.get(pos));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Marks a flagged transaction as reviewed
+    public void clearDuplicateFlag(int id) {
+        lock.writeLock().lock();
+        try {
+            flaggedDuplicates.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isAutoSnapshot() { return autoSnapshot; }
+    public void setAutoSnapshot(boolean autoSnapshot) { this.autoSnapshot = autoSnapshot; }
+
+    /** Snapshot automatically once tailBytes were appended, or the oldest unsnapshotted record is maxAgeMillis old */
+    public void setSnapshotPolicy(long tailBytes, long maxAgeMillis) {
+        if (tailBytes <= 0 || maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("Snapshot thresholds must be positive");
+        }
+        this.snapshotTailBytes = tailBytes;
+        this.snapshotMaxAgeMillis = maxAgeMillis;
+    }
 
     // Quick add (defaults for category & source)
     public void addIncome(double amount, String description) throws InvalidTransactionException {
@@ -40,10 +252,7 @@ public class Account {
             throws InvalidTransactionException {
         try {
             Income income = new Income(amount, description, category, source);
-            transactions.add(income);
-            balance += amount;
-            saveData();
-            System.out.printf(Locale.US, "Income added: %.2f. New balance: %.2f%n", amount, balance);
+            printAdded("Income", amount, add(income));
         } catch (IllegalArgumentException e) {
             throw new InvalidTransactionException("Invalid income data: " + e.getMessage());
         }
@@ -59,14 +268,7 @@ public class Account {
     public void addExpense(double amount, String description, String category, boolean isEssential)
             throws InvalidTransactionException, InsufficientFundsException {
         try {
-            if (balance < amount) {
-                throw new InsufficientFundsException("Insufficient balance for expense.");
-            }
-            Expense expense = new Expense(amount, description, category, isEssential);
-            transactions.add(expense);
-            balance -= amount;
-            saveData();
-            System.out.printf(Locale.US, "Expense added: %.2f. New balance: %.2f%n", amount, balance);
+            addExpense(new Expense(amount, description, category, isEssential));
         } catch (IllegalArgumentException e) {
             throw new InvalidTransactionException("Invalid expense data: " + e.getMessage());
         }
@@ -75,29 +277,571 @@ public class Account {
     //Complete add expense(with all fields)
     public void addExpense(double amount, String description, String category, boolean isEssential, String paymentMethod) throws InvalidTransactionException, InsufficientFundsException{
         try{
-            if(balance < amount) {
-                throw new InsufficientFundsException("Insufficient balance for expense.");
-            }
-            Expense expense = new Expense(amount, description, category, isEssential, paymentMethod);
-            transactions.add(expense);
-            balance -= amount;
-            saveData();
-            System.out.printf(Locale.US, "Expense added: %.2f. New balance: %.2f%n", amount, balance);
+            addExpense(new Expense(amount, description, category, isEssential, paymentMethod));
         } catch (IllegalArgumentException e) {
             throw new InvalidTransactionException("Invalid expense data: " + e.getMessage());
         }
     }
 
+    // Budget first, then funds; whatever was reserved is given back if the expense does not go in.
+    // add() turns the budget reservation into stored spend under the write lock.
+    private void addExpense(Expense expense) throws InvalidTransactionException, InsufficientFundsException {
+        long cents = Money.toCents(expense.getAmount());
+        ensureHistory(); // budget counters are rebuilt with the history
+        for (String alert : budgets.reserve(expense.getCategory(), expense.getDate(), cents)) {
+            System.out.println(alert);
+        }
+        boolean added = false;
+        try {
+            debit(expense);
+            long balance = add(expense);
+            added = balance != MERGED;
+            printAdded("Expense", expense.getAmount(), balance);
+        } finally {
+            if (!added) budgets.release(expense.getCategory(), expense.getDate(), cents);
+        }
+    }
+
+    private static void printAdded(String kind, double amount, long balance) {
+        if (balance == MERGED) {
+            System.out.printf(Locale.US, "%s of %.2f matches an existing transaction, merged into it.%n", kind, amount);
+        } else {
+            System.out.printf(Locale.US, "%s added: %.2f. New balance: %.2f%n", kind, amount, Money.fromCents(balance));
+        }
+    }
+
+    /**
+     * Records, indexes and persists a new transaction. Safe to call from
+     * several threads; returns the balance in cents right after this add,
+     * or MERGED if the duplicate policy folded it into an existing record.
+     * Expenses must already have been debited.
+     */
+    private long add(Transaction t) throws DuplicateTransactionException {
+        long start = System.nanoTime();
+        long cents = Money.toCents(t.getAmount());
+        boolean expense = t instanceof Expense;
+        ensureHistory();
+        lock.writeLock().lock();
+        try {
+            DuplicateDetector.Policy policy = duplicatePolicy;
+            // Same rule as addAll(): any stored record with the same fingerprint makes this a duplicate
+            boolean duplicate = duplicates.count(DuplicateDetector.fingerprint(t), t) > 0;
+            if (duplicate && policy != DuplicateDetector.Policy.FLAG) {
+                if (expense) balanceCents.addAndGet(cents); // give back the reserved funds
+                if (policy == DuplicateDetector.Policy.MERGE) return MERGED;
+                throw new DuplicateTransactionException("Duplicate of an existing transaction: "
+                        + t.getDescription() + " on " + t.getDate());
+            }
+            int pos;
+            try {
+                pos = record(t);
+            } catch (IllegalArgumentException e) {
+                if (expense) balanceCents.addAndGet(cents); // give back the reserved funds
+                throw e;
+            }
+            index(pos);
+            if (expense) budgets.commit(t.getCategory(), t.getDate(), cents); // under the lock, so a rebuild sees it once
+            if (duplicate) {
+                flaggedDuplicates.add(t.getId());
+                System.err.println("Warning: Possible duplicate transaction, flagged for review (ID " + t.getId() + ")");
+            }
+            long balance = expense ? balanceCents.get() : balanceCents.addAndGet(cents);
+            saveData(t);
+            ADD_LATENCY.recordSince(start);
+            return balance;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds many new transactions as one commit: one pass under the write
+     * lock, one balance update and one persistence write, with no console
+     * output per transaction. Transactions are applied in list order, so an
+     * expense can be paid by an income earlier in the same batch.
+     *
+     * Returns one entry per transaction: null if it was added, otherwise
+     * the reason it was rejected (the rest of the batch still goes in).
+     * Duplicates are decided exactly as a series of single adds would
+     * decide them: a row matching a stored record, or a row added earlier
+     * in the same batch, follows the duplicate policy. So under REJECT or
+     * MERGE a payment listed twice on a day goes in once; FLAG (the
+     * default) keeps both and marks the second for review.
+     */
+    public String[] addAll(List<? extends Transaction> batch) {
+        long start = System.nanoTime();
+        String[] rejected = new String[batch.size()];
+        List<Transaction> accepted = new ArrayList<>(batch.size());
+        boolean[] flagged = new boolean[batch.size()];
+        ensureHistory();
+        lock.writeLock().lock();
+        try {
+            DuplicateDetector.Policy policy = duplicatePolicy;
+            // Decide against a balance snapshot, then apply the net change with one CAS. Single
+            // expenses debit without the lock, so if one got in meanwhile, decide again.
+            while (true) {
+                long balance = balanceCents.get();
+                long running = balance;
+                accepted.clear();
+                Set<Long> added = new HashSet<>(); // fingerprints of rows going in from this batch
+                for (int i = 0; i < batch.size(); i++) {
+                    Transaction t = batch.get(i);
+                    rejected[i] = null;
+                    flagged[i] = false;
+                    if (t == null) {
+                        rejected[i] = "Missing transaction";
+                        continue;
+                    }
+                    long cents = Money.toCents(t.getAmount());
+                    long fp = 0;
+                    if (cents > 0) {
+                        fp = DuplicateDetector.fingerprint(t);
+                        if (added.contains(fp) || duplicates.count(fp, t) > 0) {
+                            if (policy == DuplicateDetector.Policy.REJECT) {
+                                rejected[i] = DUPLICATE_REJECTED;
+                                continue;
+                            }
+                            if (policy == DuplicateDetector.Policy.MERGE) {
+                                rejected[i] = DUPLICATE_MERGED;
+                                continue;
+                            }
+                            flagged[i] = true;
+                        }
+                    }
+                    if (cents <= 0) {
+                        rejected[i] = "Amount must be at least 0.01";
+                    } else if (t instanceof Expense) {
+                        if (running < cents) {
+                            rejected[i] = "Insufficient balance for expense.";
+                            continue;
+                        }
+                        running -= cents;
+                    } else {
+                        running += cents;
+                    }
+                    if (rejected[i] == null) {
+                        accepted.add(t);
+                        added.add(fp);
+                    }
+                }
+                if (balanceCents.compareAndSet(balance, running)) break;
+            }
+            int first = transactions.size();
+            for (int i = 0; i < batch.size(); i++) {
+                if (rejected[i] != null) continue;
+                int pos = record(batch.get(i));
+                rollupIndex.add(pos);
+                aggregateCube.add(pos);
+                descriptionIndex.add(pos);
+                duplicates.add(pos);
+                if (flagged[i]) flaggedDuplicates.add(batch.get(i).getId());
+                if (batch.get(i) instanceof Expense) { // imported history counts toward budgets but is never refused
+                    budgets.record(batch.get(i).getCategory(), batch.get(i).getDate(), transactions.getAmountCents(pos));
+                }
+            }
+            dateIndex.addRange(first, transactions.size()); // imports are rarely in date order
+            saveBatch(accepted);
+            ADD_BATCH_LATENCY.recordSince(start);
+            return rejected;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Lock-free check-and-debit: retries until the balance is reserved or found too low
+    private void debit(Expense expense) throws InsufficientFundsException {
+        ensureHistory(); // loading resets the balance, so it must not happen after the reservation
+        long cents = Money.toCents(expense.getAmount());
+        while (true) {
+            long current = balanceCents.get();
+            if (current < cents) {
+                throw new InsufficientFundsException("Insufficient balance for expense.");
+            }
+            if (balanceCents.compareAndSet(current, current - cents)) {
+                return;
+            }
+        }
+    }
+
+    // Adds a transaction to the history and updates the aggregates (balance is handled by the caller)
+    private int record(Transaction t) {
+        int pos = transactions.add(t); // rejects amounts below one cent
+        long cents = transactions.getAmountCents(pos);
+        if (transactions.getType(pos) == TransactionStore.INCOME) {
+            totalIncomeCents += cents;
+            incomeCount++;
+        } else {
+            totalExpenseCents += cents;
+            expenseCount++;
+        }
+        return pos;
+    }
+
+    // Keeps the lookup indexes in sync with a newly recorded transaction
+    private void index(int pos) {
+        dateIndex.add(pos);
+        rollupIndex.add(pos);
+        aggregateCube.add(pos);
+        descriptionIndex.add(pos);
+        duplicates.add(pos);
+    }
+
+    // Rebuilds every index in one go after a bulk load
+    private void rebuildIndexes() {
+        dateIndex = new DateIndex(transactions);
+        dateIndex.rebuild();
+        rollupIndex = new RollupIndex(transactions, categoryManager);
+        rollupIndex.rebuild();
+        aggregateCube = new AggregateCube(transactions);
+        aggregateCube.rebuild();
+        descriptionIndex = new DescriptionIndex(transactions);
+        descriptionIndex.rebuild();
+        duplicates = new DuplicateDetector(transactions, dateIndex);
+        duplicates.rebuild();
+    }
+
+    // Per-key breakdowns, O(#keys) from the rollup index
+    public List<RollupEntry> getIncomeByCategory() {
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            return rollupIndex.incomeByCategory();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<RollupEntry> getExpensesByCategory() {
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            return rollupIndex.expensesByCategory();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<RollupEntry> getIncomeBySource() {
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            return rollupIndex.incomeBySource();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<RollupEntry> getExpensesByPaymentMethod() {
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            return rollupIndex.expensesByPaymentMethod();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Re-buckets category totals after categories were added or removed in the CategoryManager
+    public void refreshCategories() {
+        ensureHistory();
+        lock.writeLock().lock();
+        try {
+            rollupIndex.rebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Transactions dated from..to inclusive (null = open-ended), oldest first; O(log n + k)
+    public List<Transaction> getTransactions(LocalDate from, LocalDate to) {
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            int[] range = dateRange(from, to);
+            List<Transaction> result = new ArrayList<>(range[1] - range[0]);
+            for (int i = range[0]; i < range[1]; i++) {
+                result.add(transactions.get(dateIndex.positionAt(i)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Transaction> search(String text) {
+        return search(text, TransactionFilter.all(), Integer.MAX_VALUE);
+    }
+
+    public List<Transaction> search(String text, TransactionFilter filter) {
+        return search(text, filter, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Transactions whose description contains every word of text, where a
+     * word also matches longer words it starts ("ub" finds "Uber"), and that
+     * pass the filter. Newest first, at most limit results. Blank text
+     * matches every description.
+     *
+     * Candidates come from the description index, so the cost depends on
+     * how many descriptions contain the rarest word, not on the history size.
+     */
+    public List<Transaction> search(String text, TransactionFilter filter, int limit) {
+        if (filter == null) filter = TransactionFilter.all();
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive");
+        List<String> terms = DescriptionIndex.terms(text);
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            List<Transaction> result = new ArrayList<>();
+            int[] range = dateRange(filter.getFrom(), filter.getTo());
+            boolean[] categories = matchingCategories(filter);
+            if (terms.isEmpty()) {
+                // no text: walk the date index backwards within the filter's range
+                for (int i = range[1] - 1; i >= range[0] && result.size() < limit; i--) {
+                    int pos = dateIndex.positionAt(i);
+                    if (passes(pos, filter, categories)) result.add(transactions.get(pos));
+                }
+                return result;
+            }
+            int[] candidates = descriptionIndex.search(terms);
+            if (candidates.length == 0) return result;
+
+            if ((long) limit * (range[1] - range[0]) / candidates.length < candidates.length) {
+                // Common words with a small limit: walk the date index newest first and stop at
+                // limit hits. The walk is capped so a selective filter cannot make it scan the
+                // whole history; past the cap, fall through to sorting the candidates.
+                long[] isCandidate = new long[(transactions.size() + 63) >>> 6];
+                for (int pos : candidates) isCandidate[pos >>> 6] |= 1L << pos;
+                int stop = Math.max(range[0], range[1] - 4 * candidates.length);
+                for (int i = range[1] - 1; i >= stop && result.size() < limit; i--) {
+                    int pos = dateIndex.positionAt(i);
+                    if ((isCandidate[pos >>> 6] & (1L << pos)) != 0 && passes(pos, filter, categories)) {
+                        result.add(transactions.get(pos));
+                    }
+                }
+                if (result.size() == limit || stop == range[0]) return result;
+                result.clear();
+            }
+            // Rare words: sort the few matches by (date, position). Positions are in insertion
+            // order, which backdated entries make differ from date order.
+            long[] keys = new long[candidates.length];
+            int hits = 0;
+            for (int pos : candidates) {
+                if (passes(pos, filter, categories)) {
+                    keys[hits++] = ((long) transactions.getEpochDay(pos) << 32) | pos;
+                }
+            }
+            Arrays.sort(keys, 0, hits);
+            for (int i = hits - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(transactions.get((int) keys[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Checks a store position against the filter using only its columns
+    private boolean passes(int pos, TransactionFilter filter, boolean[] categories) {
+        boolean expense = transactions.getType(pos) == TransactionStore.EXPENSE;
+        if (expense ? !filter.includesExpenses() : !filter.includesIncome()) return false;
+        if (categories != null) {
+            int code = transactions.getCategoryCode(pos);
+            if (code < 0 || code >= categories.length || !categories[code]) return false;
+        }
+        int day = transactions.getEpochDay(pos);
+        if (filter.getFrom() != null && day < filter.getFrom().toEpochDay()) return false;
+        return filter.getTo() == null || day <= filter.getTo().toEpochDay();
+    }
+
+    // Category codes equal (ignoring case) to the filter's category, or null for no category filter
+    private boolean[] matchingCategories(TransactionFilter filter) {
+        if (filter.getCategory() == null) return null;
+        StringDictionary dictionary = transactions.getCategories();
+        boolean[] matching = new boolean[dictionary.size()];
+        for (int code = 0; code < matching.length; code++) {
+            matching[code] = filter.getCategory().equalsIgnoreCase(dictionary.decode(code));
+        }
+        return matching;
+    }
+
+    // Income/expense totals for from..to inclusive (null = open-ended); two prefix-sum lookups
+    public PeriodTotals getTotals(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            return aggregateCube.totals(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Totals per calendar month, from..to inclusive
+    public List<PeriodTotals> getMonthlyTotals(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start month must not be after end month");
+        }
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            List<PeriodTotals> months = new ArrayList<>();
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                months.add(aggregateCube.totals(month.atDay(1), month.atEndOfMonth()));
+            }
+            return months;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Totals per calendar year, fromYear..toYear inclusive
+    public List<PeriodTotals> getYearlyTotals(int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("Start year must not be after end year");
+        }
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            List<PeriodTotals> years = new ArrayList<>();
+            for (int year = fromYear; year <= toYear; year++) {
+                years.add(aggregateCube.totals(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)));
+            }
+            return years;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Balance at the end of every step (DAYS, WEEKS, MONTHS or YEARS) from
+     * from to to, plus to itself, for charts; null dates default to the first and last
+     * transaction. One prefix-sum lookup per point, no rescans.
+     */
+    public Map<LocalDate, Double> getBalanceSeries(LocalDate from, LocalDate to, ChronoUnit step) {
+        if (step != ChronoUnit.DAYS && step != ChronoUnit.WEEKS && step != ChronoUnit.MONTHS && step != ChronoUnit.YEARS) {
+            throw new IllegalArgumentException("Unsupported step: " + step);
+        }
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            Map<LocalDate, Double> series = new LinkedHashMap<>();
+            if (dateIndex.size() == 0 && (from == null || to == null)) return series;
+            if (from == null) from = LocalDate.ofEpochDay(transactions.getEpochDay(dateIndex.positionAt(0)));
+            if (to == null) to = LocalDate.ofEpochDay(transactions.getEpochDay(dateIndex.positionAt(dateIndex.size() - 1)));
+            for (int i = 0; ; i++) {
+                LocalDate date = from.plus(i, step); // from the start each time so month ends don't drift
+                if (date.isAfter(to)) break;
+                series.put(date, Money.fromCents(aggregateCube.balanceAt(date)));
+            }
+            series.put(to, Money.fromCents(aggregateCube.balanceAt(to))); // always end on the last day
+            return series;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // [start, end) in date-index order for an inclusive date range
+    private int[] dateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        int start = from != null ? dateIndex.lowerBound((int) from.toEpochDay()) : 0;
+        int end = to != null ? dateIndex.upperBound((int) to.toEpochDay()) : dateIndex.size();
+        return new int[] { start, Math.max(start, end) };
+    }
+
+    // Full history in entry order. Rows are rendered from the store columns into one buffer
+    // that is flushed every DISPLAY_BATCH rows instead of printing each transaction.
     public void displayTransactions() {
-        if (transactions.isEmpty()) {
-            System.out.println("No transactions found.");
-            return;
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            if (transactions.isEmpty()) {
+                System.out.println("No transactions found.");
+                return;
+            }
+            StringBuilder out = displayBuffer();
+            out.append("\n=== TRANSACTION HISTORY ===\n");
+            for (int pos = 0; pos < transactions.size(); pos++) {
+                transactions.appendDisplay(pos, out);
+                out.append(LINE_SEPARATOR);
+                if ((pos + 1) % DISPLAY_BATCH == 0) flush(out);
+            }
+            out.append(String.format(Locale.US, "%nCurrent Balance: %.2f%n", getBalance()));
+            flush(out);
+        } finally {
+            lock.readLock().unlock();
         }
-        System.out.println("\n=== TRANSACTION HISTORY ===");
-        for (Transaction t : transactions) {
-            System.out.println(t); // Transaction.toString() handles display formatting
+    }
+
+    /**
+     * Prints one page of the history, newest first: the transactions at
+     * offset..offset+limit-1 counting back from the latest date. Costs
+     * O(limit) whatever the history size, and reaches the console as a
+     * single write. Returns the number of transactions shown.
+     */
+    public int displayTransactions(int offset, int limit) {
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            int total = transactions.size();
+            if (total == 0) {
+                System.out.println("No transactions found.");
+                return 0;
+            }
+            StringBuilder out = displayBuffer();
+            int shown = renderTransactions(offset, limit, out);
+            if (shown == 0) {
+                out.append("No transactions on this page.").append(LINE_SEPARATOR);
+            } else {
+                int pages = (total + limit - 1) / limit;
+                out.append(String.format(Locale.US, "%nPage %d of %d (transactions %d-%d of %d, newest first)%n",
+                        offset / limit + 1, pages, offset + 1, offset + shown, total));
+            }
+            flush(out);
+            return shown;
+        } finally {
+            lock.readLock().unlock();
         }
-        System.out.printf(Locale.US, "\nCurrent Balance: %.2f%n", balance);
+    }
+
+    /**
+     * Appends the transactions at offset..offset+limit-1, newest first, one
+     * per line, in the same format as Transaction.toString(). Returns the
+     * number of rows appended.
+     */
+    public int renderTransactions(int offset, int limit, StringBuilder out) {
+        if (offset < 0) throw new IllegalArgumentException("Offset cannot be negative");
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive");
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            int first = dateIndex.size() - 1 - offset;
+            int rows = Math.max(0, Math.min(limit, first + 1));
+            for (int i = 0; i < rows; i++) {
+                transactions.appendDisplay(dateIndex.positionAt(first - i), out);
+                out.append(LINE_SEPARATOR);
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Reused per thread so paging through history does not reallocate the page text
+    private static StringBuilder displayBuffer() {
+        StringBuilder out = DISPLAY_BUFFER.get();
+        out.setLength(0);
+        return out;
+    }
+
+    private static void flush(StringBuilder out) {
+        System.out.print(out);
+        System.out.flush();
+        out.setLength(0);
     }
 
     public void displaySummary() {
@@ -105,22 +849,36 @@ public class Account {
         System.out.printf(Locale.US, "Account: %s%n", accountName);
         System.out.printf(Locale.US, "Total Income: %.2f%n", getTotalIncome());
         System.out.printf(Locale.US, "Total Expenses: %.2f%n", getTotalExpenses());
-        System.out.printf(Locale.US, "Net Balance: %.2f%n", getTotalIncome() - getTotalExpenses());
+        System.out.printf(Locale.US, "Net Balance: %.2f%n", getBalance());
     }
 
+    // WHY fields? Totals are maintained on add/load instead of rescanning the history
     public double getTotalIncome() {
-        // WHY use streams? Modern, readable way to filter and sum
-        return transactions.stream()
-                .filter(t -> t.getType().equals("INCOME"))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        return Money.fromCents(totalIncomeCents);
     }
     
     public double getTotalExpenses() {
-        return transactions.stream()
-                .filter(t -> t.getType().equals("EXPENSE"))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        return Money.fromCents(totalExpenseCents);
+    }
+
+    /**
+     * Recomputes totals and counts from scratch over the store's primitive
+     * columns and checks they match the running aggregates and the balance.
+     * Only meaningful while no expense is in flight, since an expense debits
+     * the balance just before it is recorded.
+     */
+    public boolean verifyTotals() {
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            return transactions.sumCents(TransactionStore.INCOME) == totalIncomeCents
+                    && transactions.sumCents(TransactionStore.EXPENSE) == totalExpenseCents
+                    && transactions.count(TransactionStore.INCOME) == incomeCount
+                    && transactions.count(TransactionStore.EXPENSE) == expenseCount
+                    && balanceCents.get() == totalIncomeCents - totalExpenseCents;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     // public double getTotalIncome() {
@@ -137,30 +895,410 @@ public class Account {
     //             .sum();
     // }
 
-    private void saveData() {
+    // Rewrites the whole file, folding the appended records into a fresh copy
+    public void compact() {
+        try {
+            writeFullState();
+        } catch (DataFileException e) {
+            System.err.println("Warning: Could not save data - " + e.getMessage());
+            PersistenceWriter w = writer;
+            if (w != null) w.submitRewrite(); // what it had queued was dropped, so retry in the background
+        }
+    }
+
+    // The full rewrite covers whatever the writer still has queued, so that is dropped rather than appended twice
+    private void writeFullState() throws DataFileException {
+        ensureHistory();
+        lock.readLock().lock();
+        try {
+            PersistenceWriter w = writer; // only changes under the write lock
+            long covered = w != null ? w.discardQueued() : 0;
+            try {
+                fileManager.saveTransactions(transactions.asList());
+            } finally {
+                if (w != null) w.markWritten(covered);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Called under the write lock, so records reach the file (or the writer's queue) in add order
+    private void saveData(Transaction added) {
+        PersistenceWriter w = writer;
+        if (w != null) {
+            if (journalMode) {
+                w.submit(added);
+            } else {
+                w.submitRewrite();
+            }
+            return;
+        }
+        if (!journalMode) {
+            compact();
+            return;
+        }
+        try {
+            fileManager.appendTransaction(added);
+        } catch (DataFileException e) {
+            System.err.println("Warning: Could not save data - " + e.getMessage());
+        }
+    }
+
+    // One write for a whole batch (or one rewrite), however it is persisted
+    private void saveBatch(List<Transaction> added) {
+        if (added.isEmpty()) return;
+        PersistenceWriter w = writer;
+        if (w != null) {
+            if (journalMode) {
+                w.submitAll(added);
+            } else {
+                w.submitRewrite();
+            }
+            return;
+        }
+        if (!journalMode) {
+            compact();
+            return;
+        }
         try {
-            fileManager.saveTransactions(transactions);
+            fileManager.appendTransactions(added, false);
         } catch (DataFileException e) {
             System.err.println("Warning: Could not save data - " + e.getMessage());
         }
     }
 
+    /**
+     * Waits until every add so far is on disk. Only needed with the
+     * GROUP_COMMIT and ASYNC durability modes; throws the first background
+     * write failure since the previous flush.
+     */
+    public void flush() throws DataFileException {
+        PersistenceWriter w = writer;
+        if (w != null) w.flush();
+    }
+
     private void loadData() {
+        lock.writeLock().lock();
         try {
-            transactions = fileManager.loadTransactions();
-            recalcBalance();
+            snapshotGeneration = fileManager.getGeneration();
+            snapshotOffset = 0;
+            lastSnapshotMillis = System.currentTimeMillis();
+            if (!loadFromSnapshot()) {
+                recalcBalance(fileManager.loadTransactions());
+            }
         } catch (DataFileException e) {
             System.err.println("Warning: Could not load data - " + e.getMessage());
-            transactions = new ArrayList<>();
+            recalcBalance(new ArrayList<Transaction>());
+        } finally {
+            try {
+                rebuildBudgets();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // One pass over the expenses of the budgets' current periods; caller holds the write lock
+    private void rebuildBudgets() {
+        budgets.resetCounters();
+        LocalDate from = budgets.getCountingStart();
+        if (from == null) return;
+        StringDictionary categories = transactions.getCategories();
+        for (int i = dateIndex.lowerBound((int) from.toEpochDay()); i < dateIndex.size(); i++) {
+            int pos = dateIndex.positionAt(i);
+            if (transactions.getType(pos) != TransactionStore.EXPENSE) continue;
+            budgets.record(categories.decode(transactions.getCategoryCode(pos)),
+                    LocalDate.ofEpochDay(transactions.getEpochDay(pos)), transactions.getAmountCents(pos));
+        }
+    }
+
+    /**
+     * Sets the spending limit for an expense category over each week, month
+     * or year, replacing any limit for the same category and period, and
+     * counts what was already spent in the current period. A hard budget
+     * refuses expenses that would exceed it (BudgetExceededException); a
+     * soft one only prints an alert. alertPercent (0 = none) adds an early
+     * warning, e.g. 80 for 80% of the limit.
+     */
+    public void setBudget(String category, Budget.Period period, double limit, int alertPercent, boolean hard)
+            throws InvalidTransactionException {
+        Budget budget;
+        try {
+            budget = new Budget(category, period, limit, alertPercent, hard);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTransactionException("Invalid budget: " + e.getMessage());
+        }
+        ensureHistory();
+        lock.writeLock().lock();
+        try {
+            budgets.setBudget(budget);
+            rebuildBudgets();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean removeBudget(String category, Budget.Period period) {
+        return budgets.removeBudget(category, period);
+    }
+
+    // Spend against each budget in its current period
+    public void displayBudgets() {
+        ensureHistory(); // the counters are only complete once the history is loaded
+        budgets.displayBudgets();
+    }
+
+    // Summary-only accounts load their history the first time something needs it
+    private void ensureHistory() {
+        if (historyLoaded) return;
+        lock.writeLock().lock();
+        try {
+            if (!historyLoaded) {
+                loadData();
+                historyLoaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Reads the summary and totals up the records appended after it; false means fall back to a full load
+    private boolean loadSummary() {
+        File file = new File(fileManager.getSummaryFile());
+        if (!file.exists()) return false;
+        AccountSummary summary;
+        List<Transaction> tail;
+        try {
+            summary = AccountSummary.read(file);
+            if (fileManager.tailChecksum(summary.journalLength) != summary.journalChecksum) {
+                System.out.println("Summary does not match the transactions file, loading full history");
+                return false;
+            }
+            tail = fileManager.loadTransactionsFrom(summary.journalLength);
+        } catch (IOException | DataFileException e) {
+            System.err.println("Warning: Could not read summary - " + e.getMessage());
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            long income = summary.totalIncomeCents;
+            long expenses = summary.totalExpenseCents;
+            int incomes = summary.incomeCount;
+            int expenseRecords = summary.expenseCount;
+            int maxId = summary.maxId;
+            for (Transaction t : tail) {
+                long cents = Money.toCents(t.getAmount());
+                if (cents <= 0) continue; // a full load skips these too
+                if (t instanceof Income) {
+                    income += cents;
+                    incomes++;
+                } else {
+                    expenses += cents;
+                    expenseRecords++;
+                }
+                maxId = Math.max(maxId, t.getId());
+            }
+            totalIncomeCents = income;
+            totalExpenseCents = expenses;
+            incomeCount = incomes;
+            expenseCount = expenseRecords;
+            balanceCents.set(income - expenses);
+            summaryMaxId = maxId;
+            Transaction.reserveId(maxId);
+            historyLoaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.printf("Loaded summary of %d transactions, history loads on first use%n", getTransactionCount());
+        return true;
+    }
+
+    // Records the current totals in the summary file; called with the account quiet (close) or after a snapshot
+    private void writeSummary() {
+        AccountSummary summary;
+        long generation;
+        lock.readLock().lock();
+        try {
+            PersistenceWriter w = writer;
+            if (w != null && !w.awaitAppends()) return; // the totals would cover records not yet in the file
+            long length = fileManager.getDataLength();
+            generation = fileManager.getGeneration();
+            summary = new AccountSummary(length, fileManager.tailChecksum(length), totalIncomeCents,
+                    totalExpenseCents, incomeCount, expenseCount,
+                    historyLoaded ? transactions.maxId() : summaryMaxId);
+        } catch (DataFileException e) {
+            System.err.println("Warning: Could not write summary - " + e.getMessage());
+            return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        File temp = new File(fileManager.getSummaryFile() + ".tmp");
+        try {
+            summary.write(temp);
+            fileManager.commitSummary(temp, generation);
+        } catch (IOException | DataFileException e) {
+            temp.delete();
+            System.err.println("Warning: Could not write summary - " + e.getMessage());
+        }
+    }
+
+    // Single pass over the loaded history for balance and all aggregates
+    private void recalcBalance(List<Transaction> loaded) {
+        transactions = new TransactionStore();
+        totalIncomeCents = 0;
+        totalExpenseCents = 0;
+        incomeCount = 0;
+        expenseCount = 0;
+        for (Transaction t : loaded) {
+            try {
+                record(t);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Skipping transaction " + t.getId() + ": " + e.getMessage());
+            }
+        }
+        balanceCents.set(totalIncomeCents - totalExpenseCents);
+        rebuildIndexes();
+    }
+
+    // Restores the snapshot and replays the journal tail; false means fall back to a full load
+    private boolean loadFromSnapshot() {
+        File file = new File(fileManager.getSnapshotFile());
+        if (!file.exists()) return false;
+        AccountSnapshot snapshot;
+        List<Transaction> tail;
+        try {
+            snapshot = AccountSnapshot.read(file);
+            if (fileManager.tailChecksum(snapshot.journalLength) != snapshot.journalChecksum) {
+                System.out.println("Snapshot does not match the transactions file, loading full history");
+                return false;
+            }
+            tail = fileManager.loadTransactionsFrom(snapshot.journalLength);
+        } catch (IOException | DataFileException e) {
+            System.err.println("Warning: Could not read snapshot - " + e.getMessage());
+            return false;
+        }
+
+        transactions = snapshot.store;
+        totalIncomeCents = snapshot.totalIncomeCents;
+        totalExpenseCents = snapshot.totalExpenseCents;
+        incomeCount = snapshot.incomeCount;
+        expenseCount = snapshot.expenseCount;
+        Transaction.reserveId(transactions.maxId()); // new ids must not clash with restored ones
+        dateIndex = new DateIndex(transactions, snapshot.datePositions);
+        rollupIndex = new RollupIndex(transactions, categoryManager);
+        rollupIndex.rebuild();
+        aggregateCube = new AggregateCube(transactions);
+        aggregateCube.rebuild();
+        descriptionIndex = new DescriptionIndex(transactions);
+        descriptionIndex.rebuild();
+        duplicates = new DuplicateDetector(transactions, dateIndex);
+        duplicates.rebuild();
+        int restored = transactions.size();
+        for (Transaction t : tail) {
+            try {
+                index(record(t));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Skipping transaction " + t.getId() + ": " + e.getMessage());
+            }
         }
+        balanceCents.set(totalIncomeCents - totalExpenseCents);
+
+        snapshotOffset = snapshot.journalLength;
+        lastSnapshotMillis = file.lastModified();
+        System.out.printf("Restored %d transactions from snapshot, replayed %d from journal%n",
+                restored, tail.size());
+        return true;
     }
 
-    private void recalcBalance() {
-        double total = 0.0;
-        for (Transaction t : transactions) {
-            total += t.getBalanceImpact(); // Income positive, Expense negative
+    /**
+     * Writes a snapshot of the current state now. The state is copied under
+     * the read lock and written outside it, so adds are only blocked for the
+     * copy. Returns false if nothing was written.
+     */
+    public boolean snapshot() {
+        if (!historyLoaded) return false; // nothing was added since the summary was read
+        synchronized (snapshotLock) {
+            AccountSnapshot snapshot;
+            long generation;
+            lock.readLock().lock();
+            try {
+                // The snapshot must not cover records that are still queued for the file
+                PersistenceWriter w = writer;
+                if (w != null && !w.awaitAppends()) return false; // a queued rewrite drops snapshots anyway
+                long length = fileManager.getDataLength();
+                generation = fileManager.getGeneration();
+                snapshot = new AccountSnapshot(length, fileManager.tailChecksum(length),
+                        totalIncomeCents, totalExpenseCents, incomeCount, expenseCount,
+                        transactions.copy(), dateIndex.toArray());
+            } catch (DataFileException e) {
+                System.err.println("Warning: Could not write snapshot - " + e.getMessage());
+                return false;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            File temp = new File(fileManager.getSnapshotFile() + ".tmp");
+            try {
+                snapshot.write(temp);
+                if (!fileManager.commitSnapshot(temp, generation)) {
+                    return false; // file was rewritten meanwhile, the next check will try again
+                }
+            } catch (IOException | DataFileException e) {
+                temp.delete();
+                System.err.println("Warning: Could not write snapshot - " + e.getMessage());
+                return false;
+            }
+            snapshotOffset = snapshot.journalLength;
+            snapshotGeneration = generation;
+            lastSnapshotMillis = System.currentTimeMillis();
+        }
+        writeSummary();
+        return true;
+    }
+
+    // Called periodically by SnapshotScheduler
+    void maybeSnapshot() {
+        if (!autoSnapshot || !journalMode || !historyLoaded) return; // full rewrites replace the file, which drops snapshots anyway
+        long tail;
+        long age;
+        synchronized (snapshotLock) {
+            long length = fileManager.getDataLength();
+            tail = fileManager.getGeneration() == snapshotGeneration ? length - snapshotOffset : length;
+            age = System.currentTimeMillis() - lastSnapshotMillis;
+        }
+        if (tail >= snapshotTailBytes || (tail > 0 && age >= snapshotMaxAgeMillis)) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Approximate heap used by this account's history and indexes, used by
+     * AccountRegistry to decide when to evict idle accounts.
+     */
+    public long estimateMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return transactions.estimateMemoryBytes() + dateIndex.size() * 4L + aggregateCube.estimateMemoryBytes()
+                    + descriptionIndex.estimateMemoryBytes() + duplicates.estimateMemoryBytes() + ACCOUNT_OVERHEAD_BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Drains background writes, records the summary, backs up this session's records and releases the data file
+    public void close() {
+        if (snapshotTask != null) snapshotTask.cancel(false);
+        setDurabilityMode(DurabilityMode.SYNC); // stops the writer thread, and later adds still get saved
+        fileManager.closeJournal();
+        writeSummary();
+        try {
+            fileManager.backup(); // only the records added this session
+        } catch (DataFileException e) {
+            System.err.println("Warning: " + e.getMessage());
         }
-        balance = total;
     }
 
     // Optional helper used by some tests
@@ -171,6 +1309,6 @@ public class Account {
     public String getStatistics() {
         return String.format(Locale.US,
                 "Account: %s | Income: %.2f | Expenses: %.2f | Net: %.2f",
-                accountName, getTotalIncome(), getTotalExpenses(), (getTotalIncome() - getTotalExpenses()));
+                accountName, getTotalIncome(), getTotalExpenses(), getBalance());
     }
 }
@@ -0,0 +1,242 @@
+package com.financetracker.models;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Materialized account state written to disk so startup does not have to
+ * replay the whole transactions file.
+ *
+ * Layout (big-endian): magic "FTSN", version, the length of the
+ * transactions file the snapshot covers plus a checksum of the bytes just
+ * before that point, the running aggregates, the TransactionStore columns
+ * and dictionaries, the date index order, and finally a CRC32 of
+ * everything before it. Records appended to the transactions file after
+ * the covered length are the tail that gets replayed on load.
+ */
+final class AccountSnapshot {
+    static final int MAGIC = 0x4654534E; // "FTSN"
+    static final int VERSION = 1;
+
+    final long journalLength;
+    final long journalChecksum;
+    final long totalIncomeCents;
+    final long totalExpenseCents;
+    final int incomeCount;
+    final int expenseCount;
+    final TransactionStore store;
+    final int[] datePositions;
+
+    AccountSnapshot(long journalLength, long journalChecksum, long totalIncomeCents, long totalExpenseCents,
+                    int incomeCount, int expenseCount, TransactionStore store, int[] datePositions) {
+        this.journalLength = journalLength;
+        this.journalChecksum = journalChecksum;
+        this.totalIncomeCents = totalIncomeCents;
+        this.totalExpenseCents = totalExpenseCents;
+        this.incomeCount = incomeCount;
+        this.expenseCount = expenseCount;
+        this.store = store;
+        this.datePositions = datePositions;
+    }
+
+    void write(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalLength);
+            out.writeLong(journalChecksum);
+            out.writeLong(totalIncomeCents);
+            out.writeLong(totalExpenseCents);
+            out.writeInt(incomeCount);
+            out.writeInt(expenseCount);
+            store.writeColumns(out);
+            out.writeInt(datePositions.length);
+            out.writeInts(datePositions, datePositions.length);
+            out.finish();
+            channel.force(false);
+        }
+    }
+
+    static AccountSnapshot read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            if (in.readInt() != MAGIC) throw new IOException("Not a snapshot file");
+            int version = in.readInt();
+            if (version > VERSION) throw new IOException("Unsupported snapshot version " + version);
+            long journalLength = in.readLong();
+            long journalChecksum = in.readLong();
+            long totalIncomeCents = in.readLong();
+            long totalExpenseCents = in.readLong();
+            int incomeCount = in.readInt();
+            int expenseCount = in.readInt();
+            TransactionStore store = TransactionStore.readColumns(in);
+            int[] datePositions = in.readInts(in.readLength());
+            if (datePositions.length != store.size()) throw new IOException("Date index does not match store");
+            in.verify();
+            return new AccountSnapshot(journalLength, journalChecksum, totalIncomeCents, totalExpenseCents,
+                    incomeCount, expenseCount, store, datePositions);
+        }
+    }
+
+    // Buffered, checksummed writes to a channel
+    static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+        private final CRC32 crc = new CRC32();
+
+        Output(FileChannel channel) { this.channel = channel; }
+
+        void writeByte(byte v) throws IOException { ensure(1); buf.put(v); }
+        void writeInt(int v) throws IOException { ensure(4); buf.putInt(v); }
+        void writeLong(long v) throws IOException { ensure(8); buf.putLong(v); }
+
+        void writeString(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            writeBytes(bytes, bytes.length);
+        }
+
+        void writeBytes(byte[] values, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                ensure(1);
+                int k = Math.min(n - i, buf.remaining());
+                buf.put(values, i, k);
+                i += k;
+            }
+        }
+
+        void writeInts(int[] values, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                ensure(4);
+                int k = Math.min(n - i, buf.remaining() / 4);
+                buf.asIntBuffer().put(values, i, k);
+                buf.position(buf.position() + k * 4);
+                i += k;
+            }
+        }
+
+        void writeLongs(long[] values, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                ensure(8);
+                int k = Math.min(n - i, buf.remaining() / 8);
+                buf.asLongBuffer().put(values, i, k);
+                buf.position(buf.position() + k * 8);
+                i += k;
+            }
+        }
+
+        // Appends the CRC of everything written so far and flushes
+        void finish() throws IOException {
+            flush();
+            buf.putInt((int) crc.getValue());
+            buf.flip();
+            while (buf.hasRemaining()) channel.write(buf);
+            buf.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buf.remaining() < bytes) flush();
+        }
+
+        private void flush() throws IOException {
+            crc.update(buf.array(), 0, buf.position());
+            buf.flip();
+            while (buf.hasRemaining()) channel.write(buf);
+            buf.clear();
+        }
+    }
+
+    // Buffered, checksummed reads from a channel
+    static final class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+        private final CRC32 crc = new CRC32();
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            buf.flip(); // start empty
+        }
+
+        byte readByte() throws IOException { require(1); return buf.get(); }
+        int readInt() throws IOException { require(4); return buf.getInt(); }
+        long readLong() throws IOException { require(8); return buf.getLong(); }
+
+        // Array and string lengths; guards against allocating garbage sizes from a damaged file
+        int readLength() throws IOException {
+            int n = readInt();
+            if (n < 0 || n > channel.size()) throw new IOException("Corrupt snapshot length " + n);
+            return n;
+        }
+
+        String readString() throws IOException {
+            byte[] bytes = readBytes(readLength());
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        byte[] readBytes(int n) throws IOException {
+            byte[] values = new byte[n];
+            for (int i = 0; i < n; ) {
+                require(1);
+                int k = Math.min(n - i, buf.remaining());
+                buf.get(values, i, k);
+                i += k;
+            }
+            return values;
+        }
+
+        int[] readInts(int n) throws IOException {
+            int[] values = new int[n];
+            for (int i = 0; i < n; ) {
+                require(4);
+                int k = Math.min(n - i, buf.remaining() / 4);
+                buf.asIntBuffer().get(values, i, k);
+                buf.position(buf.position() + k * 4);
+                i += k;
+            }
+            return values;
+        }
+
+        long[] readLongs(int n) throws IOException {
+            long[] values = new long[n];
+            for (int i = 0; i < n; ) {
+                require(8);
+                int k = Math.min(n - i, buf.remaining() / 8);
+                buf.asLongBuffer().get(values, i, k);
+                buf.position(buf.position() + k * 8);
+                i += k;
+            }
+            return values;
+        }
+
+        // Checks the trailing CRC against everything read so far
+        void verify() throws IOException {
+            crc.update(buf.array(), 0, buf.position());
+            long expected = crc.getValue();
+            buf.compact().flip();
+            if ((readInt() & 0xFFFFFFFFL) != expected) {
+                throw new IOException("Checksum mismatch");
+            }
+        }
+
+        // Makes sure at least bytes are buffered, checksumming what has been consumed
+        private void require(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) return;
+            crc.update(buf.array(), 0, buf.position());
+            buf.compact();
+            while (buf.position() < bytes) {
+                if (channel.read(buf) < 0) {
+                    throw new EOFException("Truncated snapshot");
+                }
+            }
+            buf.flip();
+        }
+    }
+}
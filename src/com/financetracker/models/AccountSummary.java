@@ -0,0 +1,82 @@
+package com.financetracker.models;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The few numbers a dashboard needs at login, kept in a small sidecar next
+ * to the transactions file so an account can report them without reading
+ * its history.
+ *
+ * Layout (big-endian): magic "FTSM", version, the length of the
+ * transactions file the summary covers plus a checksum of the bytes just
+ * before that point (as for snapshots), income and expense totals in
+ * cents, income and expense counts, the highest transaction id, and a
+ * CRC32 of everything before it.
+ */
+final class AccountSummary {
+    static final int MAGIC = 0x4654534D; // "FTSM"
+    static final int VERSION = 1;
+
+    final long journalLength;
+    final long journalChecksum;
+    final long totalIncomeCents;
+    final long totalExpenseCents;
+    final int incomeCount;
+    final int expenseCount;
+    final int maxId;
+
+    AccountSummary(long journalLength, long journalChecksum, long totalIncomeCents, long totalExpenseCents,
+                   int incomeCount, int expenseCount, int maxId) {
+        this.journalLength = journalLength;
+        this.journalChecksum = journalChecksum;
+        this.totalIncomeCents = totalIncomeCents;
+        this.totalExpenseCents = totalExpenseCents;
+        this.incomeCount = incomeCount;
+        this.expenseCount = expenseCount;
+        this.maxId = maxId;
+    }
+
+    void write(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            AccountSnapshot.Output out = new AccountSnapshot.Output(channel);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalLength);
+            out.writeLong(journalChecksum);
+            out.writeLong(totalIncomeCents);
+            out.writeLong(totalExpenseCents);
+            out.writeInt(incomeCount);
+            out.writeInt(expenseCount);
+            out.writeInt(maxId);
+            out.finish();
+            channel.force(false);
+        }
+    }
+
+    // Throws IOException if the file is not a summary or its checksum does not match
+    static AccountSummary read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            AccountSnapshot.Input in = new AccountSnapshot.Input(channel);
+            if (in.readInt() != MAGIC) throw new IOException("Not a summary file");
+            int version = in.readInt();
+            if (version > VERSION) throw new IOException("Unsupported summary version " + version);
+            long journalLength = in.readLong();
+            long journalChecksum = in.readLong();
+            long totalIncomeCents = in.readLong();
+            long totalExpenseCents = in.readLong();
+            int incomeCount = in.readInt();
+            int expenseCount = in.readInt();
+            int maxId = in.readInt();
+            in.verify();
+            if (incomeCount < 0 || expenseCount < 0 || totalIncomeCents < 0 || totalExpenseCents < 0) {
+                throw new IOException("Corrupt summary totals");
+            }
+            return new AccountSummary(journalLength, journalChecksum, totalIncomeCents, totalExpenseCents,
+                    incomeCount, expenseCount, maxId);
+        }
+    }
+}
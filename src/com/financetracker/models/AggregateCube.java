@@ -0,0 +1,267 @@
+package com.financetracker.models;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Income/expense totals and counts per epoch day, with prefix sums so the
+ * totals of any date range are two lookups. Month and year totals are just
+ * ranges over the day slots, and the running balance at the end of a day
+ * is a single prefix lookup.
+ *
+ * Prefix sums are maintained lazily: an add only marks the prefix entries
+ * after its day as stale, and queries extend the valid prefix as far as
+ * they need. Transactions are almost always dated today (the last slot),
+ * so both adds and queries are amortized O(1).
+ *
+ * Day slots only cover a window around today (DENSE_YEARS_BACK years back,
+ * DENSE_YEARS_AHEAD ahead), so a stray date such as 9999-01-01 in an
+ * imported or hand-edited file cannot make every per-day array millions
+ * of slots long. Days outside it are kept in a small sorted map instead,
+ * with prefix sums of their own that are rebuilt on the first query after
+ * an outlier is added, so queries stay O(log n) in the outlier days.
+ *
+ * Methods are synchronized because queries extend the prefix arrays while
+ * Account only holds its read lock.
+ */
+class AggregateCube {
+    private static final int INITIAL_SLOTS = 64;
+    private static final int DENSE_YEARS_BACK = 60;
+    private static final int DENSE_YEARS_AHEAD = 10;
+
+    private final TransactionStore store;
+    private final int denseFirstDay; // days outside denseFirstDay..denseLastDay go to outliers
+    private final int denseLastDay;
+    // epoch day -> {income cents, expense cents, income count, expense count}
+    private final TreeMap<Integer, long[]> outliers = new TreeMap<>();
+    // Outlier days in order and outlierPrefix[k][i] = sum of field k over the first i of them
+    private int[] outlierDays = new int[0];
+    private long[][] outlierPrefix = new long[4][1];
+    private boolean outlierPrefixStale;
+
+    private int firstDay;  // epoch day of slot 0
+    private int used;      // slots 0..used-1 lie between the first and last day seen
+    private long[] incomeCents = new long[0];
+    private long[] expenseCents = new long[0];
+    private int[] incomeCounts = new int[0];
+    private int[] expenseCounts = new int[0];
+
+    // prefix*[i] = sum over slots < i; entries 0..prefixValid are up to date
+    private long[] prefixIncome = new long[1];
+    private long[] prefixExpense = new long[1];
+    private int[] prefixIncomeCount = new int[1];
+    private int[] prefixExpenseCount = new int[1];
+    private int prefixValid;
+
+    AggregateCube(TransactionStore store) {
+        this.store = store;
+        LocalDate today = LocalDate.now();
+        this.denseFirstDay = (int) today.minusYears(DENSE_YEARS_BACK).toEpochDay();
+        this.denseLastDay = (int) today.plusYears(DENSE_YEARS_AHEAD).toEpochDay();
+    }
+
+    synchronized void add(int pos) {
+        int day = store.getEpochDay(pos);
+        if (day < denseFirstDay || day > denseLastDay) {
+            addOutlier(day, pos);
+            return;
+        }
+        ensureCovers(day);
+        int slot = day - firstDay;
+        if (store.getType(pos) == TransactionStore.INCOME) {
+            incomeCents[slot] += store.getAmountCents(pos);
+            incomeCounts[slot]++;
+        } else {
+            expenseCents[slot] += store.getAmountCents(pos);
+            expenseCounts[slot]++;
+        }
+        used = Math.max(used, slot + 1);
+        prefixValid = Math.min(prefixValid, slot);
+    }
+
+    private void addOutlier(int day, int pos) {
+        long[] totals = outliers.computeIfAbsent(day, d -> new long[4]);
+        outlierPrefixStale = true;
+        if (store.getType(pos) == TransactionStore.INCOME) {
+            totals[0] += store.getAmountCents(pos);
+            totals[2]++;
+        } else {
+            totals[1] += store.getAmountCents(pos);
+            totals[3]++;
+        }
+    }
+
+    // One pass over the store, sized up front from the first and last day
+    synchronized void rebuild() {
+        used = 0;
+        prefixValid = 0;
+        outliers.clear();
+        outlierPrefixStale = true;
+        int n = store.size();
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int pos = 0; pos < n; pos++) {
+            int day = store.getEpochDay(pos);
+            if (day < denseFirstDay || day > denseLastDay) continue;
+            if (day < min) min = day;
+            if (day > max) max = day;
+        }
+        if (min > max) {
+            allocate(0, 0);
+            for (int pos = 0; pos < n; pos++) {
+                addOutlier(store.getEpochDay(pos), pos);
+            }
+            return;
+        }
+        allocate(min, max - min + 1 + INITIAL_SLOTS); // room for the days to come
+        for (int pos = 0; pos < n; pos++) {
+            add(pos);
+        }
+    }
+
+    /** Totals for from..to inclusive; null means open-ended */
+    synchronized PeriodTotals totals(LocalDate from, LocalDate to) {
+        int start = from != null ? slotBefore(from.toEpochDay()) : 0;
+        int end = to != null ? slotBefore(to.toEpochDay() + 1) : used;
+        if (end < start) end = start;
+        extendPrefix(end);
+        long income = prefixIncome[end] - prefixIncome[start];
+        long expenses = prefixExpense[end] - prefixExpense[start];
+        long incomes = prefixIncomeCount[end] - prefixIncomeCount[start];
+        long expenseRecords = prefixExpenseCount[end] - prefixExpenseCount[start];
+        if (!outliers.isEmpty()) {
+            refreshOutlierPrefix();
+            int first = from != null ? outliersBefore(from.toEpochDay()) : 0;
+            int last = to != null ? outliersBefore(to.toEpochDay() + 1) : outlierDays.length;
+            if (last > first) {
+                income += outlierPrefix[0][last] - outlierPrefix[0][first];
+                expenses += outlierPrefix[1][last] - outlierPrefix[1][first];
+                incomes += outlierPrefix[2][last] - outlierPrefix[2][first];
+                expenseRecords += outlierPrefix[3][last] - outlierPrefix[3][first];
+            }
+        }
+        return new PeriodTotals(from, to, income, expenses, (int) incomes, (int) expenseRecords);
+    }
+
+    /** Balance in cents at the end of the given day */
+    synchronized long balanceAt(LocalDate date) {
+        int end = slotBefore(date.toEpochDay() + 1);
+        extendPrefix(end);
+        long balance = prefixIncome[end] - prefixExpense[end];
+        if (!outliers.isEmpty()) {
+            refreshOutlierPrefix();
+            int last = outliersBefore(date.toEpochDay() + 1);
+            balance += outlierPrefix[0][last] - outlierPrefix[1][last];
+        }
+        return balance;
+    }
+
+    // One pass over the outlier map; adds of outliers are rare, so this runs about once per import
+    private void refreshOutlierPrefix() {
+        if (!outlierPrefixStale) return;
+        int n = outliers.size();
+        outlierDays = new int[n];
+        outlierPrefix = new long[4][n + 1];
+        int i = 0;
+        for (Map.Entry<Integer, long[]> e : outliers.entrySet()) {
+            outlierDays[i] = e.getKey();
+            for (int k = 0; k < 4; k++) {
+                outlierPrefix[k][i + 1] = outlierPrefix[k][i] + e.getValue()[k];
+            }
+            i++;
+        }
+        outlierPrefixStale = false;
+    }
+
+    // Number of outlier days strictly before epochDay
+    private int outliersBefore(long epochDay) {
+        int low = 0;
+        int high = outlierDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (outlierDays[mid] < epochDay) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Number of slots strictly before epochDay, clamped to the covered range
+    private int slotBefore(long epochDay) {
+        long slot = epochDay - firstDay;
+        if (slot < 0) return 0;
+        return (int) Math.min(slot, used);
+    }
+
+    private void extendPrefix(int end) {
+        for (int i = prefixValid; i < end; i++) {
+            prefixIncome[i + 1] = prefixIncome[i] + incomeCents[i];
+            prefixExpense[i + 1] = prefixExpense[i] + expenseCents[i];
+            prefixIncomeCount[i + 1] = prefixIncomeCount[i] + incomeCounts[i];
+            prefixExpenseCount[i + 1] = prefixExpenseCount[i] + expenseCounts[i];
+        }
+        prefixValid = Math.max(prefixValid, end);
+    }
+
+    private void ensureCovers(int day) {
+        int capacity = incomeCents.length;
+        if (used == 0 && capacity == 0) {
+            allocate(day, INITIAL_SLOTS);
+            return;
+        }
+        if (used == 0) {
+            // empty but allocated: just move the window
+            if (day < firstDay || day >= firstDay + capacity) firstDay = day;
+            return;
+        }
+        if (day < firstDay) {
+            // backdated before anything seen: shift everything right, leave room for more
+            int shift = (firstDay - day) + Math.max(INITIAL_SLOTS, capacity / 2);
+            resize(firstDay - shift, shift, Math.max(capacity, used) + shift);
+        } else if (day - firstDay >= capacity) {
+            resize(firstDay, 0, Math.max(day - firstDay + 1, capacity * 2));
+        }
+    }
+
+    private void allocate(int first, int slots) {
+        firstDay = first;
+        incomeCents = new long[slots];
+        expenseCents = new long[slots];
+        incomeCounts = new int[slots];
+        expenseCounts = new int[slots];
+        prefixIncome = new long[slots + 1];
+        prefixExpense = new long[slots + 1];
+        prefixIncomeCount = new int[slots + 1];
+        prefixExpenseCount = new int[slots + 1];
+    }
+
+    // Copies the per-day columns into new arrays of the given size, offset by shift slots
+    private void resize(int newFirstDay, int shift, int slots) {
+        long[] income = incomeCents, expense = expenseCents;
+        int[] incomes = incomeCounts, expenses = expenseCounts;
+        int validPrefix = prefixValid;
+        long[] pIncome = prefixIncome, pExpense = prefixExpense;
+        int[] pIncomes = prefixIncomeCount, pExpenses = prefixExpenseCount;
+
+        allocate(newFirstDay, slots);
+        System.arraycopy(income, 0, incomeCents, shift, used);
+        System.arraycopy(expense, 0, expenseCents, shift, used);
+        System.arraycopy(incomes, 0, incomeCounts, shift, used);
+        System.arraycopy(expenses, 0, expenseCounts, shift, used);
+        if (shift == 0) {
+            // prefix sums stay valid when the window only grows at the end
+            System.arraycopy(pIncome, 0, prefixIncome, 0, validPrefix + 1);
+            System.arraycopy(pExpense, 0, prefixExpense, 0, validPrefix + 1);
+            System.arraycopy(pIncomes, 0, prefixIncomeCount, 0, validPrefix + 1);
+            System.arraycopy(pExpenses, 0, prefixExpenseCount, 0, validPrefix + 1);
+        } else {
+            prefixValid = 0;
+        }
+        used += shift;
+    }
+
+    // Heap used by the day slots, for memory estimates
+    synchronized long estimateMemoryBytes() {
+        return incomeCents.length * 48L + outliers.size() * 148L; // map entry plus its prefix entries
+    }
+}
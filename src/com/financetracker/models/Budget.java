@@ -0,0 +1,127 @@
+package com.financetracker.models;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A spending limit for one expense category over a calendar week, month
+ * or year. A hard budget rejects an expense that would take the period's
+ * spend over the limit; a soft one only warns. Either kind can also warn
+ * once the spend reaches alertPercent of the limit (0 = no early warning).
+ */
+public class Budget {
+
+    public enum Period {
+        WEEKLY,     // Monday to Sunday
+        MONTHLY,
+        YEARLY;
+
+        /** Number identifying the period containing date; later periods have larger keys */
+        public int key(LocalDate date) {
+            switch (this) {
+                case WEEKLY:
+                    return (int) Math.floorDiv(date.toEpochDay() + 3, 7); // epoch day 0 was a Thursday
+                case MONTHLY:
+                    return date.getYear() * 12 + date.getMonthValue() - 1;
+                default:
+                    return date.getYear();
+            }
+        }
+
+        /** First day of the period containing date */
+        public LocalDate start(LocalDate date) {
+            switch (this) {
+                case WEEKLY:
+                    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTHLY:
+                    return date.withDayOfMonth(1);
+                default:
+                    return date.withDayOfYear(1);
+            }
+        }
+    }
+
+    private final String category;
+    private final Period period;
+    private final long limitCents;
+    private final int alertPercent;
+    private final boolean hard;
+
+    public Budget(String category, Period period, double limit, int alertPercent, boolean hard) {
+        if (category == null || category.trim().isEmpty()) {
+            throw new IllegalArgumentException("Budget category cannot be empty");
+        }
+        if (period == null) {
+            throw new IllegalArgumentException("Budget period cannot be null");
+        }
+        if (Double.isNaN(limit) || limit < 0.01) {
+            throw new IllegalArgumentException("Budget limit must be at least 0.01");
+        }
+        if (alertPercent < 0 || alertPercent > 100) {
+            throw new IllegalArgumentException("Alert percentage must be between 0 and 100");
+        }
+        this.category = category.trim();
+        this.period = period;
+        this.limitCents = Money.toCents(limit);
+        this.alertPercent = alertPercent;
+        this.hard = hard;
+    }
+
+    //Getters
+    public String getCategory() { return category; }
+    public Period getPeriod() { return period; }
+    public long getLimitCents() { return limitCents; }
+    public double getLimit() { return Money.fromCents(limitCents); }
+    public int getAlertPercent() { return alertPercent; }
+    public boolean isHard() { return hard; }
+
+    /** Spend (in cents) at which the early warning fires, or Long.MAX_VALUE if there is none */
+    public long getAlertCents() {
+        return alertPercent > 0 ? (limitCents * alertPercent + 99) / 100 : Long.MAX_VALUE;
+    }
+
+    //File persistance: category|PERIOD|limit|alertPercent|HARD or SOFT, category escaped as in Category
+    public String toFileFormat() {
+        return String.join("|", Category.escape(category), period.name(),
+                new TransactionSerializer(16).appendCents(limitCents).toString(),
+                Integer.toString(alertPercent), hard ? "HARD" : "SOFT");
+    }
+
+    public static Budget fromFileFormat(String line) {
+        List<String> parts = Category.splitEscaped(line);
+        if (parts.size() != 5) {
+            throw new IllegalArgumentException("Invalid budget file format: " + line);
+        }
+        try {
+            return new Budget(parts.get(0), Period.valueOf(parts.get(1).trim()),
+                    Double.parseDouble(parts.get(2).trim()), Integer.parseInt(parts.get(3).trim()),
+                    "HARD".equals(parts.get(4).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid budget amounts: " + line);
+        }
+    }
+
+    // One budget per category (ignoring case) and period
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Budget budget = (Budget) obj;
+        return category.equalsIgnoreCase(budget.category) && period == budget.period;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(category.toLowerCase(Locale.ROOT), period);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s limit %.2f (%s%s)", category, period.name().toLowerCase(), getLimit(),
+                hard ? "hard" : "soft", alertPercent > 0 ? ", alert at " + alertPercent + "%" : "");
+    }
+}
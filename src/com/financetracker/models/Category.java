@@ -1,5 +1,7 @@
 package com.financetracker.models;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public class Category {
@@ -10,15 +12,27 @@ public class Category {
         BOTH
     }
 
+    public static final int NO_ID = 0; // not assigned by a CategoryManager yet
+
+    private final int id;
     private String name;
     private String description;
     private CategoryType type;
     private boolean isDefault;
 
     public Category(String name, String description, CategoryType type, boolean isDefault) {
+        this(NO_ID, name, description, type, isDefault);
+    }
+
+    // id is the stable number transaction files use to refer to the category (see CategoryManager)
+    public Category(int id, String name, String description, CategoryType type, boolean isDefault) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Category id cannot be negative");
+        }
         if(name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Category name cannot be empty");
         }
+        this.id = id;
         this.name = name.trim();
         this.description = description != null ? description.trim() : "";
         this.type = type != null ? type : CategoryType.BOTH;
@@ -31,6 +45,9 @@ public class Category {
     }
 
     //Getters
+    public int getId() {
+        return id;
+    }
     public String getName() {
         return name;
     }
@@ -76,25 +93,56 @@ public class Category {
         }
     }
 
-    //File persistance
+    //File persistance: id|name|description|TYPE|isDefault, with backslashes and '|' escaped by a backslash
     public String toFileFormat() {
-        String safeName = name.replace("|","\\|");
-        String safeDesc = description.replace("|","\\|");
-        return String.join("|", safeName, safeDesc, type.name(), Boolean.toString(isDefault));
+        return String.join("|", Integer.toString(id), escape(name), escape(description),
+                type.name(), Boolean.toString(isDefault));
     }
 
+    // Also reads the old name|description|TYPE|isDefault lines, which have no id
     public static Category fromFileFormat(String line) {
-        // split on unescaped '|' (simple approach: split and then unescape)
-        String[] parts = line.split("\\|", -1); // use -1 to keep empty fields
-        if (parts.length != 4) {
+        List<String> parts = splitEscaped(line);
+        if (parts.size() != 4 && parts.size() != 5) {
             throw new IllegalArgumentException("Invalid category file format: " + line);
         }
 
-        String name = parts[0].replace("\\|", "|").trim();
-        String desc = parts[1].replace("\\|", "|").trim();
-        CategoryType type = CategoryType.valueOf(parts[2].trim());
-        boolean isDefault = Boolean.parseBoolean(parts[3].trim());
-        return new Category(name, desc, type, isDefault);
+        int first = parts.size() - 4;
+        int id = NO_ID;
+        if (first == 1) {
+            try {
+                id = Integer.parseInt(parts.get(0).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid category id: " + line);
+            }
+        }
+        String name = parts.get(first).trim();
+        String desc = parts.get(first + 1).trim();
+        CategoryType type = CategoryType.valueOf(parts.get(first + 2).trim());
+        boolean isDefault = Boolean.parseBoolean(parts.get(first + 3).trim());
+        return new Category(id, name, desc, type, isDefault);
+    }
+
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("|", "\\|");
+    }
+
+    // Splits on '|' not preceded by an escaping backslash, unescaping as it goes
+    static List<String> splitEscaped(String line) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                current.append(line.charAt(++i));
+            } else if (c == '|') {
+                parts.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        parts.add(current.toString());
+        return parts;
     }
 
     @Override
@@ -0,0 +1,114 @@
+package com.financetracker.models;
+
+import java.util.Arrays;
+
+/**
+ * Positions of a TransactionStore sorted by epoch day (ties keep insertion
+ * order), so date range lookups are two binary searches.
+ * New transactions are almost always dated today, which makes add() an
+ * append; older dates fall back to an insertion.
+ */
+class DateIndex {
+    private final TransactionStore store;
+    private int[] positions = new int[16];
+    private int size;
+
+    DateIndex(TransactionStore store) {
+        this.store = store;
+    }
+
+    // Index restored from a snapshot; positions must already be in date order
+    DateIndex(TransactionStore store, int[] positions) {
+        this.store = store;
+        this.positions = positions.length > 0 ? positions : new int[16];
+        this.size = positions.length;
+    }
+
+    int size() { return size; }
+
+    /** Positions in date order, trimmed; a copy */
+    int[] toArray() {
+        return Arrays.copyOf(positions, size);
+    }
+
+    /** Store position of the i-th transaction in date order */
+    int positionAt(int i) {
+        return positions[i];
+    }
+
+    void add(int pos) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size + (size >> 1) + 1);
+        }
+        int day = store.getEpochDay(pos);
+        int at = size == 0 || day >= store.getEpochDay(positions[size - 1]) ? size : upperBound(day);
+        System.arraycopy(positions, at, positions, at + 1, size - at);
+        positions[at] = pos;
+        size++;
+    }
+
+    /**
+     * Adds store positions from (inclusive) to to (exclusive) in one merge:
+     * O(n + k log k) however the batch is dated, where one add() per
+     * out-of-order record would shift the array each time.
+     */
+    void addRange(int from, int to) {
+        int k = to - from;
+        if (k <= 0) return;
+        long[] keys = new long[k];
+        boolean sorted = true;
+        for (int i = 0; i < k; i++) {
+            keys[i] = ((long) store.getEpochDay(from + i) << 32) | (from + i);
+            if (i > 0 && keys[i] < keys[i - 1]) sorted = false;
+        }
+        if (!sorted) Arrays.sort(keys);
+        if (size + k > positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(size + k, size + (size >> 1) + 1));
+        }
+        // Merge from the back; on equal days the new positions go last
+        int i = size - 1, j = k - 1, out = size + k - 1;
+        while (j >= 0) {
+            if (i >= 0 && store.getEpochDay(positions[i]) > (int) (keys[j] >> 32)) {
+                positions[out--] = positions[i--];
+            } else {
+                positions[out--] = (int) keys[j--];
+            }
+        }
+        size += k;
+    }
+
+    // Rebuilds the whole index in O(n log n); used after bulk loads
+    void rebuild() {
+        int n = store.size();
+        long[] keys = new long[n];
+        for (int pos = 0; pos < n; pos++) {
+            keys[pos] = ((long) store.getEpochDay(pos) << 32) | pos;
+        }
+        Arrays.sort(keys);
+        positions = new int[Math.max(16, n)];
+        for (int i = 0; i < n; i++) {
+            positions[i] = (int) keys[i];
+        }
+        size = n;
+    }
+
+    /** First index whose day is >= day */
+    int lowerBound(int day) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (store.getEpochDay(positions[mid]) < day) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** First index whose day is > day */
+    int upperBound(int day) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (store.getEpochDay(positions[mid]) <= day) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
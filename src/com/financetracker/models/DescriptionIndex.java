@@ -0,0 +1,210 @@
+package com.financetracker.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over transaction descriptions: each lower-cased token
+ * (runs of letters and digits) maps to the sorted store positions of the
+ * descriptions containing it. Tokens are kept in a TreeMap so a search
+ * term matches every token it is a prefix of ("ub" finds "uber").
+ *
+ * Positions are added in increasing order, so posting lists stay sorted
+ * by simply appending.
+ */
+class DescriptionIndex {
+    private final TransactionStore store;
+    private final TreeMap<String, Postings> tokens = new TreeMap<>();
+    private long postingCount;
+
+    DescriptionIndex(TransactionStore store) {
+        this.store = store;
+    }
+
+    void add(int pos) {
+        String description = store.getDescription(pos);
+        int i = 0;
+        int n = description.length();
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(description.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(description.charAt(i))) i++;
+            if (i > start) {
+                String token = description.substring(start, i).toLowerCase(Locale.ROOT);
+                Postings postings = tokens.get(token);
+                if (postings == null) {
+                    postings = new Postings();
+                    tokens.put(token, postings);
+                }
+                if (postings.add(pos)) postingCount++;
+            }
+        }
+    }
+
+    void rebuild() {
+        tokens.clear();
+        postingCount = 0;
+        for (int pos = 0; pos < store.size(); pos++) {
+            add(pos);
+        }
+    }
+
+    /** Terms of a query, split and folded the same way as descriptions */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(text.charAt(i))) i++;
+            if (i > start) terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        }
+        return terms;
+    }
+
+    /**
+     * Sorted positions whose description has, for every term, a token
+     * starting with that term. Terms must come from terms().
+     *
+     * The rarest term supplies the candidates. Each further term either
+     * probes its posting lists against a bitset of the candidates or, when
+     * the candidates are already few, is checked directly against their
+     * descriptions, which avoids walking the postings of a common prefix.
+     */
+    int[] search(List<String> terms) {
+        if (terms.isEmpty()) return new int[0];
+        int n = terms.size();
+        List<NavigableMap<String, Postings>> matches = new ArrayList<>(n);
+        long[] sizes = new long[n];
+        int rarest = 0;
+        for (int t = 0; t < n; t++) {
+            NavigableMap<String, Postings> m = matching(terms.get(t));
+            if (m.isEmpty()) return new int[0];
+            matches.add(m);
+            for (Postings postings : m.values()) sizes[t] += postings.size;
+            if (sizes[t] < sizes[rarest]) rarest = t;
+        }
+
+        int[] result = positionsFor(matches.get(rarest));
+        for (int t = 0; t < n && result.length > 0; t++) {
+            if (t == rarest) continue;
+            if (result.length * VERIFY_COST_FACTOR < sizes[t]) {
+                result = verify(result, terms.get(t));
+            } else {
+                result = retain(result, matches.get(t));
+            }
+        }
+        return result;
+    }
+
+    // Tokenizing a description costs roughly this many posting entries merged
+    private static final int VERIFY_COST_FACTOR = 16;
+
+    private NavigableMap<String, Postings> matching(String prefix) {
+        return tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // Union of the postings of every matching token
+    private int[] positionsFor(NavigableMap<String, Postings> matches) {
+        if (matches.size() == 1) {
+            Postings only = matches.firstEntry().getValue();
+            return Arrays.copyOf(only.positions, only.size);
+        }
+        // Several tokens: mark positions in a bitset, which also removes duplicates
+        long[] bits = new long[(store.size() + 63) >>> 6];
+        int count = 0;
+        for (Postings postings : matches.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                int pos = postings.positions[i];
+                long mask = 1L << pos;
+                if ((bits[pos >>> 6] & mask) == 0) {
+                    bits[pos >>> 6] |= mask;
+                    count++;
+                }
+            }
+        }
+        int[] result = new int[count];
+        int r = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                result[r++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    // Keeps the candidates whose description has a token starting with term
+    private int[] verify(int[] candidates, String term) {
+        int[] out = new int[candidates.length];
+        int k = 0;
+        for (int pos : candidates) {
+            if (hasTokenStartingWith(store.getDescription(pos), term)) out[k++] = pos;
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    private static boolean hasTokenStartingWith(String description, String term) {
+        int i = 0;
+        int n = description.length();
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(description.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(description.charAt(i))) i++;
+            if (i - start >= term.length()
+                    && description.substring(start, start + term.length()).toLowerCase(Locale.ROOT).equals(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Keeps the candidates that appear in any of the matching postings. Probing a bitset is
+    // branch-predictable, unlike a merge of two large interleaved lists.
+    private int[] retain(int[] candidates, NavigableMap<String, Postings> matches) {
+        long[] bits = new long[(store.size() + 63) >>> 6];
+        for (int pos : candidates) bits[pos >>> 6] |= 1L << pos;
+        int[] out = new int[candidates.length];
+        int k = 0;
+        for (Postings postings : matches.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                int pos = postings.positions[i];
+                long mask = 1L << pos;
+                if ((bits[pos >>> 6] & mask) != 0) {
+                    bits[pos >>> 6] &= ~mask; // clear, so a position in several postings is kept once
+                    out[k++] = pos;
+                }
+            }
+        }
+        out = Arrays.copyOf(out, k);
+        if (matches.size() > 1) Arrays.sort(out); // hits from several postings arrive unordered
+        return out;
+    }
+
+    // Posting arrays (about half full on average) plus a TreeMap entry and key per token
+    long estimateMemoryBytes() {
+        return postingCount * 6 + tokens.size() * 120L;
+    }
+
+    // Growable sorted int array of store positions
+    private static class Postings {
+        int[] positions = new int[2];
+        int size;
+
+        boolean add(int pos) {
+            if (size > 0 && positions[size - 1] == pos) return false; // token repeated in one description
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = pos;
+            return true;
+        }
+    }
+}
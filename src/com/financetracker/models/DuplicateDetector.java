@@ -0,0 +1,244 @@
+package com.financetracker.models;
+
+/**
+ * Finds records that already exist in a TransactionStore, so a re-imported
+ * statement period does not double count. A record is identified by a
+ * 64-bit fingerprint of its type, amount, date, normalized description
+ * (lower-case, punctuation and repeated spaces dropped) and category.
+ *
+ * Recent history (HOT_WINDOW_DAYS back from the newest date) is counted in
+ * an open-addressing fingerprint -> count table, so the usual check is one
+ * probe. Older history only lives in a Bloom filter (about ten bits per
+ * record); a hit there is confirmed by scanning that one day through the
+ * date index. Both paths are O(1) per check for any realistic number of
+ * transactions a day.
+ *
+ * Not thread-safe; Account calls it under its lock.
+ */
+public final class DuplicateDetector {
+    // What an add does with a record matching an existing one
+    public enum Policy {
+        REJECT, // refuse it
+        FLAG,   // add it and mark it for review
+        MERGE   // treat it as the existing record: nothing is added
+    }
+
+    public static final int HOT_WINDOW_DAYS = 180;
+    private static final int BLOOM_BITS_PER_RECORD = 10;
+    private static final int BLOOM_HASHES = 7;
+
+    private final TransactionStore store;
+    private final DateIndex dateIndex;
+
+    private final FingerprintCounts hot = new FingerprintCounts();
+    private int newestDay = Integer.MIN_VALUE;
+    private int hotCutoff = Integer.MIN_VALUE; // days before this are only in the Bloom filter
+    private int hotBuiltFor = Integer.MIN_VALUE; // newestDay when hot was last rebuilt
+
+    private long[] bloom = new long[0];
+    private long bloomMask; // bit count - 1, a power of two
+    private int bloomCapacity;
+    private int bloomCount;
+
+    DuplicateDetector(TransactionStore store, DateIndex dateIndex) {
+        this.store = store;
+        this.dateIndex = dateIndex;
+    }
+
+    /** Fingerprint of a new transaction, comparable with those of stored records */
+    static long fingerprint(Transaction t) {
+        long cents = Money.toCents(t.getAmount());
+        return fingerprint(t instanceof Expense ? -cents : cents, (int) t.getDate().toEpochDay(),
+                t.getDescription(), t.getCategory());
+    }
+
+    long fingerprint(int pos) {
+        long cents = store.getAmountCents(pos);
+        return fingerprint(store.getType(pos) == TransactionStore.EXPENSE ? -cents : cents, store.getEpochDay(pos),
+                store.getDescription(pos), store.getCategories().decode(store.getCategoryCode(pos)));
+    }
+
+    /** How many stored records match t (whose fingerprint is given) */
+    int count(long fingerprint, Transaction t) {
+        int epochDay = (int) t.getDate().toEpochDay();
+        if (epochDay >= hotCutoff) {
+            return hot.get(fingerprint);
+        }
+        if (!bloomMightContain(fingerprint)) {
+            return 0;
+        }
+        // Confirm on that day's records; the amount is checked first as it is far cheaper
+        long cents = Money.toCents(t.getAmount());
+        byte type = t instanceof Expense ? TransactionStore.EXPENSE : TransactionStore.INCOME;
+        int count = 0;
+        int end = dateIndex.upperBound(epochDay);
+        for (int i = dateIndex.lowerBound(epochDay); i < end; i++) {
+            int pos = dateIndex.positionAt(i);
+            if (store.getAmountCents(pos) == cents && store.getType(pos) == type
+                    && fingerprint(pos) == fingerprint) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Call after the record at pos was added to the store
+    void add(int pos) {
+        long fp = fingerprint(pos);
+        int day = store.getEpochDay(pos);
+        if (day > newestDay) {
+            newestDay = day;
+            hotCutoff = day - HOT_WINDOW_DAYS;
+            // Drop the entries that went cold once they are half the window's worth
+            if (hotBuiltFor == Integer.MIN_VALUE) {
+                hotBuiltFor = day;
+            } else if (newestDay - hotBuiltFor > HOT_WINDOW_DAYS / 2) {
+                rebuildHot();
+            }
+        }
+        if (day >= hotCutoff) hot.increment(fp);
+        if (bloomCount >= bloomCapacity) {
+            rebuildBloom(Math.max(1024, store.size() * 2));
+        } else {
+            bloomAdd(fp);
+        }
+    }
+
+    void rebuild() {
+        newestDay = Integer.MIN_VALUE;
+        for (int pos = 0; pos < store.size(); pos++) {
+            newestDay = Math.max(newestDay, store.getEpochDay(pos));
+        }
+        hotCutoff = newestDay == Integer.MIN_VALUE ? Integer.MIN_VALUE : newestDay - HOT_WINDOW_DAYS;
+        rebuildHot();
+        rebuildBloom(Math.max(1024, store.size() * 2));
+    }
+
+    long estimateMemoryBytes() {
+        return hot.estimateMemoryBytes() + bloom.length * 8L;
+    }
+
+    private void rebuildHot() {
+        hot.clear();
+        for (int pos = 0; pos < store.size(); pos++) {
+            if (store.getEpochDay(pos) >= hotCutoff) hot.increment(fingerprint(pos));
+        }
+        hotBuiltFor = newestDay;
+    }
+
+    private void rebuildBloom(int capacity) {
+        long bits = Long.highestOneBit(Math.max(64L, (long) capacity * BLOOM_BITS_PER_RECORD - 1) * 2);
+        bloom = new long[(int) (bits >>> 6)];
+        bloomMask = bits - 1;
+        bloomCapacity = capacity;
+        bloomCount = 0;
+        for (int pos = 0; pos < store.size(); pos++) {
+            bloomAdd(fingerprint(pos));
+        }
+    }
+
+    // Double hashing: the i-th probe is h1 + i * h2
+    private void bloomAdd(long fp) {
+        long h1 = fp, h2 = (fp >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = (h1 + i * h2) & bloomMask;
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        bloomCount++;
+    }
+
+    private boolean bloomMightContain(long fp) {
+        if (bloom.length == 0) return false;
+        long h1 = fp, h2 = (fp >>> 32) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = (h1 + i * h2) & bloomMask;
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // FNV-1a over the fields, normalizing the text on the fly, then a 64-bit finalizer
+    private static long fingerprint(long signedCents, int epochDay, String description, String category) {
+        long h = 0xcbf29ce484222325L;
+        h = (h ^ signedCents) * 0x100000001b3L;
+        h = (h ^ epochDay) * 0x100000001b3L;
+        boolean gap = false;
+        boolean any = false;
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && any) h = (h ^ ' ') * 0x100000001b3L;
+                h = (h ^ Character.toLowerCase(c)) * 0x100000001b3L;
+                gap = false;
+                any = true;
+            } else {
+                gap = true;
+            }
+        }
+        h = (h ^ '|') * 0x100000001b3L;
+        String trimmed = category.trim();
+        for (int i = 0; i < trimmed.length(); i++) {
+            h = (h ^ Character.toLowerCase(trimmed.charAt(i))) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // Open addressing, linear probing; key 0 marks an empty slot
+    private static final class FingerprintCounts {
+        private long[] keys = new long[64];
+        private int[] counts = new int[64];
+        private int size;
+
+        int get(long fp) {
+            long key = fp != 0 ? fp : 1;
+            int mask = keys.length - 1;
+            for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) return counts[i];
+                if (keys[i] == 0) return 0;
+            }
+        }
+
+        void increment(long fp) {
+            long key = fp != 0 ? fp : 1;
+            if ((size + 1) * 4L > keys.length * 3L) grow();
+            int mask = keys.length - 1;
+            int i = (int) key & mask;
+            while (keys[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+            if (keys[i] == 0) {
+                keys[i] = key;
+                size++;
+            }
+            counts[i]++;
+        }
+
+        void clear() {
+            keys = new long[64];
+            counts = new int[64];
+            size = 0;
+        }
+
+        long estimateMemoryBytes() {
+            return keys.length * 12L;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) continue;
+                int i = (int) oldKeys[j] & mask;
+                while (keys[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                counts[i] = oldCounts[j];
+            }
+        }
+    }
+}
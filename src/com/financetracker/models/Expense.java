@@ -55,6 +55,11 @@ public class Expense extends Transaction {
         // Format: "isEssential,paymentMethod"
         return isEssential + "," + paymentMethod;
     }
+
+    @Override
+    void appendAdditionalFields(TransactionSerializer out) {
+        out.append(isEssential).append(',').append(paymentMethod);
+    }
     
     // Expense-specific methods
     public boolean isEssential() { return isEssential; }
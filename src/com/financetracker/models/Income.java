@@ -44,6 +44,11 @@ public class Income extends Transaction {
         // Format: just the source for now
         return source;
     }
+
+    @Override
+    void appendAdditionalFields(TransactionSerializer out) {
+        out.append(source);
+    }
     
     // Income-specific methods
     public String getSource() { return source; }
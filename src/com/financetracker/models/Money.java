@@ -0,0 +1,32 @@
+package com.financetracker.models;
+
+import java.util.Locale;
+
+// Conversions between double amounts and whole cents
+public final class Money {
+    // Above this a double no longer has enough precision for the fast path
+    private static final double FAST_LIMIT = 1e9;
+
+    private Money() {}
+
+    /**
+     * Rounds an amount to cents exactly like String.format("%.2f") does, so
+     * in-memory cents always agree with what the file stores.
+     */
+    public static long toCents(double amount) {
+        if (amount > 0 && amount < FAST_LIMIT) {
+            double scaled = amount * 100;
+            double fraction = scaled - Math.floor(scaled);
+            // Formatter rounds half-up on the shortest decimal form; only values
+            // right at a half cent can disagree with Math.round, let it decide those
+            if (Math.abs(fraction - 0.5) > 1e-4) {
+                return Math.round(scaled);
+            }
+        }
+        return Long.parseLong(String.format(Locale.US, "%.2f", amount).replace(".", ""));
+    }
+
+    public static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.financetracker.models;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+// Income/expense totals over a date range
+public class PeriodTotals {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final long incomeCents;
+    private final long expenseCents;
+    private final int incomeCount;
+    private final int expenseCount;
+
+    public PeriodTotals(LocalDate from, LocalDate to, long incomeCents, long expenseCents,
+                        int incomeCount, int expenseCount) {
+        this.from = from;
+        this.to = to;
+        this.incomeCents = incomeCents;
+        this.expenseCents = expenseCents;
+        this.incomeCount = incomeCount;
+        this.expenseCount = expenseCount;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public double getIncome() { return Money.fromCents(incomeCents); }
+    public double getExpenses() { return Money.fromCents(expenseCents); }
+    public double getNet() { return Money.fromCents(incomeCents - expenseCents); }
+    public long getIncomeCents() { return incomeCents; }
+    public long getExpenseCents() { return expenseCents; }
+    public int getIncomeCount() { return incomeCount; }
+    public int getExpenseCount() { return expenseCount; }
+    public int getCount() { return incomeCount + expenseCount; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s to %s | Income: %.2f (%d) | Expenses: %.2f (%d) | Net: %.2f",
+                from != null ? from : "start", to != null ? to : "end",
+                getIncome(), incomeCount, getExpenses(), expenseCount, getNet());
+    }
+}
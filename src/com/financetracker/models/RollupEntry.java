@@ -0,0 +1,32 @@
+package com.financetracker.models;
+
+import java.util.Locale;
+
+// Totals for one category, source or payment method
+public class RollupEntry {
+    private final String key;
+    private final long totalCents;
+    private final int count;
+    private final long essentialCents;
+
+    public RollupEntry(String key, long totalCents, int count, long essentialCents) {
+        this.key = key;
+        this.totalCents = totalCents;
+        this.count = count;
+        this.essentialCents = essentialCents;
+    }
+
+    public String getKey() { return key; }
+    public double getTotal() { return Money.fromCents(totalCents); }
+    public long getTotalCents() { return totalCents; }
+    public int getCount() { return count; }
+    // Essential split only applies to expenses; income entries report 0 essential
+    public double getEssential() { return Money.fromCents(essentialCents); }
+    public double getNonEssential() { return Money.fromCents(totalCents - essentialCents); }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s: %.2f (%d) | Essential: %.2f | Non-essential: %.2f",
+                key, getTotal(), count, getEssential(), getNonEssential());
+    }
+}
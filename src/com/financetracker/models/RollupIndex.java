@@ -0,0 +1,153 @@
+package com.financetracker.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.financetracker.managers.CategoryManager;
+
+/**
+ * Per-key totals for a TransactionStore: income and expenses by category,
+ * income by source and expenses by payment method. Updated in O(1) per
+ * transaction using the store's dictionary codes, and read in O(#keys).
+ *
+ * Category strings are matched (case-insensitively) against the
+ * CategoryManager categories valid for the transaction type; anything
+ * unknown is bucketed under "Other".
+ */
+class RollupIndex {
+    static final String UNKNOWN_CATEGORY = "Other";
+
+    private final TransactionStore store;
+    private final CategoryManager categoryManager;
+
+    // Lower-cased category name -> canonical name, per transaction type
+    private Map<String, String> incomeCategoryNames;
+    private Map<String, String> expenseCategoryNames;
+    // Store category code -> bucket code, resolved on first use (NO_CODE = not yet)
+    private int[] incomeBucketByCode = new int[0];
+    private int[] expenseBucketByCode = new int[0];
+    private final StringDictionary buckets = new StringDictionary();
+
+    private final Totals incomeByCategory = new Totals();
+    private final Totals expensesByCategory = new Totals();
+    private final Totals incomeBySource = new Totals();
+    private final Totals expensesByPaymentMethod = new Totals();
+
+    RollupIndex(TransactionStore store, CategoryManager categoryManager) {
+        this.store = store;
+        this.categoryManager = categoryManager;
+        loadCategoryNames();
+    }
+
+    void add(int pos) {
+        long cents = store.getAmountCents(pos);
+        int categoryCode = store.getCategoryCode(pos);
+        if (store.getType(pos) == TransactionStore.INCOME) {
+            incomeByCategory.add(incomeBucket(categoryCode), cents, false);
+            incomeBySource.add(store.getSourceCode(pos), cents, false);
+        } else {
+            boolean essential = store.isEssential(pos);
+            expensesByCategory.add(expenseBucket(categoryCode), cents, essential);
+            expensesByPaymentMethod.add(store.getPaymentCode(pos), cents, essential);
+        }
+    }
+
+    // Single pass over the store, e.g. after a load or when categories change
+    void rebuild() {
+        loadCategoryNames();
+        incomeBucketByCode = new int[0];
+        expenseBucketByCode = new int[0];
+        incomeByCategory.clear();
+        expensesByCategory.clear();
+        incomeBySource.clear();
+        expensesByPaymentMethod.clear();
+        for (int pos = 0; pos < store.size(); pos++) {
+            add(pos);
+        }
+    }
+
+    List<RollupEntry> incomeByCategory() { return incomeByCategory.entries(buckets); }
+    List<RollupEntry> expensesByCategory() { return expensesByCategory.entries(buckets); }
+    List<RollupEntry> incomeBySource() { return incomeBySource.entries(store.getSources()); }
+    List<RollupEntry> expensesByPaymentMethod() { return expensesByPaymentMethod.entries(store.getPaymentMethods()); }
+
+    private void loadCategoryNames() {
+        incomeCategoryNames = namesFor(Category.CategoryType.INCOME_CATEGORY);
+        expenseCategoryNames = namesFor(Category.CategoryType.EXPENSE_CATEGORY);
+    }
+
+    private Map<String, String> namesFor(Category.CategoryType type) {
+        Map<String, String> names = new HashMap<>();
+        for (Category c : categoryManager.getCategoriesForType(type)) {
+            names.put(c.getName().toLowerCase(Locale.ROOT), c.getName());
+        }
+        return names;
+    }
+
+    private int incomeBucket(int categoryCode) {
+        incomeBucketByCode = resolve(incomeBucketByCode, categoryCode, incomeCategoryNames);
+        return incomeBucketByCode[categoryCode];
+    }
+
+    private int expenseBucket(int categoryCode) {
+        expenseBucketByCode = resolve(expenseBucketByCode, categoryCode, expenseCategoryNames);
+        return expenseBucketByCode[categoryCode];
+    }
+
+    // Only does a string lookup the first time a category code is seen
+    private int[] resolve(int[] table, int categoryCode, Map<String, String> names) {
+        if (categoryCode >= table.length) {
+            int oldLength = table.length;
+            table = Arrays.copyOf(table, Math.max(categoryCode + 1, oldLength * 2));
+            Arrays.fill(table, oldLength, table.length, StringDictionary.NO_CODE);
+        }
+        if (table[categoryCode] == StringDictionary.NO_CODE) {
+            String raw = store.getCategories().decode(categoryCode);
+            String name = names.get(raw.toLowerCase(Locale.ROOT));
+            table[categoryCode] = buckets.encode(name != null ? name : UNKNOWN_CATEGORY);
+        }
+        return table;
+    }
+
+    // Totals, counts and essential amounts indexed by key code
+    private static class Totals {
+        private long[] cents = new long[8];
+        private int[] counts = new int[8];
+        private long[] essentialCents = new long[8];
+        private int keys;
+
+        void add(int code, long amount, boolean essential) {
+            if (code >= cents.length) {
+                int capacity = Math.max(code + 1, cents.length * 2);
+                cents = Arrays.copyOf(cents, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                essentialCents = Arrays.copyOf(essentialCents, capacity);
+            }
+            cents[code] += amount;
+            counts[code]++;
+            if (essential) essentialCents[code] += amount;
+            keys = Math.max(keys, code + 1);
+        }
+
+        void clear() {
+            Arrays.fill(cents, 0);
+            Arrays.fill(counts, 0);
+            Arrays.fill(essentialCents, 0);
+            keys = 0;
+        }
+
+        List<RollupEntry> entries(StringDictionary names) {
+            List<RollupEntry> result = new ArrayList<>();
+            for (int code = 0; code < keys; code++) {
+                if (counts[code] > 0) {
+                    result.add(new RollupEntry(names.decode(code), cents[code], counts[code], essentialCents[code]));
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.financetracker.models;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One shared background thread that periodically lets every open account
+ * check whether its journal tail should be folded into a new snapshot.
+ * Accounts are only weakly referenced, so an account that is dropped
+ * without close() is still garbage collected and its check goes away.
+ */
+final class SnapshotScheduler {
+    private static ScheduledThreadPoolExecutor executor;
+
+    private SnapshotScheduler() {}
+
+    static synchronized ScheduledFuture<?> schedule(Account account, long periodMillis) {
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "snapshot-compactor");
+                thread.setDaemon(true); // never keeps the app from exiting
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+        }
+        Check check = new Check(account);
+        check.future = executor.scheduleWithFixedDelay(check, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        return check.future;
+    }
+
+    private static class Check implements Runnable {
+        private final WeakReference<Account> account;
+        private volatile ScheduledFuture<?> future;
+
+        Check(Account account) {
+            this.account = new WeakReference<>(account);
+        }
+
+        @Override
+        public void run() {
+            Account target = account.get();
+            if (target == null) {
+                if (future != null) future.cancel(false);
+                return;
+            }
+            try {
+                target.maybeSnapshot();
+            } catch (RuntimeException e) {
+                // an exception would silently stop the periodic task
+                System.err.println("Warning: Snapshot check failed - " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.financetracker.models;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Maps repeated strings (categories, sources, payment methods) to dense int codes
+public class StringDictionary {
+    public static final int NO_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /** Returns the code for value, assigning the next free code if it is new */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) return code;
+        int next = values.size();
+        codes.put(value, next);
+        values.add(value);
+        return next;
+    }
+
+    /** Returns the code for value or NO_CODE if it has never been encoded */
+    public int lookup(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : NO_CODE;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -2,10 +2,10 @@ package com.financetracker.models;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Transaction {
-    private static int nextId = 1001;
+    private static final AtomicInteger nextId = new AtomicInteger(1001);
 
     protected int id;
     protected double amount;
@@ -23,7 +23,7 @@ public abstract class Transaction {
         validateAmount(amount);
         validateDescription(description);
         
-        this.id = nextId++;
+        this.id = allocateId();
         this.amount = amount;
         this.description = description.trim();
         this.category = validateAndSetCategory(category);
@@ -41,7 +41,26 @@ public abstract class Transaction {
         this.category = validateAndSetCategory(category);
         this.date = date;
 
-        if (id >= nextId) nextId = id + 1;
+        reserveId(id);
+    }
+
+    // Atomic so transactions can be created from several threads without duplicate ids
+    private static int allocateId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Reserves count consecutive ids and returns the first. Bulk imports use
+     * this so rows built on several threads still get ids in row order.
+     */
+    public static int allocateIds(int count) {
+        if (count < 0) throw new IllegalArgumentException("Count cannot be negative");
+        return nextId.getAndAdd(count);
+    }
+
+    // Moves nextId past a loaded id; only ever moves forward, even under races
+    static void reserveId(int id) {
+        nextId.accumulateAndGet(id + 1, Math::max);
     }
 
     // Abstract methods - each transaction type implements differently
@@ -88,78 +107,23 @@ public abstract class Transaction {
 
     // Enhanced file serialization with additional fields
     public String toFileFormat() {
-        // Replace any '|' in description to avoid delimiter conflicts
-        String safeDesc = description.replace("|", "/");
-        return String.format(Locale.US, "%d|%s|%.2f|%s|%s|%s|%s",
-                id,
-                getType(),
-                amount,
-                safeDesc,
-                category,
-                date.format(FILE_DATE),
-                getAdditionalFields()); // Let subclasses add their specific fields
+        // Replaces any '|' in description to avoid delimiter conflicts
+        return new TransactionSerializer(64).append(this).toString();
     }
     
     // Abstract method for subclasses to provide additional fields
     protected abstract String getAdditionalFields();
 
+    // Allocation-free variant used by TransactionSerializer; subclasses may override
+    void appendAdditionalFields(TransactionSerializer out) {
+        out.append(getAdditionalFields());
+    }
+
     // Parse from file-format line with backward compatibility
     public static Transaction fromFileFormat(String line) {
         if (line == null) throw new IllegalArgumentException("Line is null");
-
-        String[] parts = line.split("\\|", -1);
-        
-        // Support both old (6 parts) and new (7+ parts) formats
-        if (parts.length < 6) {
-            throw new IllegalArgumentException("Invalid transaction file format");
-        }
-
-        try {
-            int id = Integer.parseInt(parts[0].trim());
-            String type = parts[1].trim();
-            double amount = Double.parseDouble(parts[2].trim());
-            String description = parts[3].trim();
-            String category = parts[4].trim();
-            LocalDate date = LocalDate.parse(parts[5].trim(), FILE_DATE);
-            
-            // Additional fields for enhanced format
-            String additionalFields = parts.length > 6 ? parts[6] : "";
-
-            switch (type.toUpperCase()) {
-                case "INCOME":
-                    return createIncomeFromFile(id, amount, description, category, date, additionalFields);
-                case "EXPENSE":
-                    return createExpenseFromFile(id, amount, description, category, date, additionalFields);
-                default:
-                    throw new IllegalArgumentException("Unknown transaction type: " + type);
-            }
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Failed to parse transaction: " + line, e);
-        }
-    }
-    
-    // Helper methods for creating specific transaction types from file
-    private static Income createIncomeFromFile(int id, double amount, String description, 
-                                             String category, LocalDate date, String additionalFields) {
-        if (additionalFields.isEmpty()) {
-            return new Income(id, amount, description, category, date);
-        } else {
-            // Parse additional fields for enhanced Income
-            return new Income(id, amount, description, category, date, additionalFields);
-        }
-    }
-    
-    private static Expense createExpenseFromFile(int id, double amount, String description,
-                                               String category, LocalDate date, String additionalFields) {
-        if (additionalFields.isEmpty()) {
-            return new Expense(id, amount, description, category, date);
-        } else {
-            // Parse additional fields: "isEssential,paymentMethod"
-            String[] fields = additionalFields.split(",", 2);
-            boolean isEssential = fields.length > 0 ? Boolean.parseBoolean(fields[0]) : true;
-            String paymentMethod = fields.length > 1 ? fields[1] : "Unknown";
-            return new Expense(id, amount, description, category, date, isEssential, paymentMethod);
-        }
+        // Supports both old (6 parts) and new (7+ parts) formats
+        return TransactionParser.parse(line);
     }
 
     // User-friendly console representation
@@ -0,0 +1,201 @@
+package com.financetracker.models;
+
+import java.time.LocalDate;
+
+/**
+ * Single-pass parser for the transactions file format:
+ *   id|TYPE|amount|description|category|yyyy-MM-dd[|extras]
+ *
+ * Scans the line once, parses id, amount and date straight into primitives
+ * and only allocates the strings that end up in the final Income/Expense.
+ * Accepts exactly what the old split()-based parser accepted; anything
+ * unusual (exponents, non-ASCII digits, dates with offsets...) falls back
+ * to the JDK parsers so results never differ.
+ */
+public final class TransactionParser {
+    private static final int FIELDS = 7;   // 6 for the old format, 7 with extras
+
+    // Exact powers of ten for the fast double path
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private TransactionParser() {}
+
+    public static Transaction parse(CharSequence line) {
+        if (line == null) throw new IllegalArgumentException("Line is null");
+        return parse(line, 0, line.length());
+    }
+
+    /** Parses the record held in line[start, end) without copying it first */
+    public static Transaction parse(CharSequence line, int start, int end) {
+        // Field boundaries: field i is [starts[i], ends[i])
+        int[] starts = new int[FIELDS];
+        int[] ends = new int[FIELDS];
+        int fields = 0;
+        int fieldStart = start;
+        for (int i = start; i < end && fields < FIELDS - 1; i++) {
+            if (line.charAt(i) == '|') {
+                starts[fields] = fieldStart;
+                ends[fields] = i;
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+        // Last field runs to the next '|' (extra fields are ignored) or end of line
+        int lastEnd = fieldStart;
+        while (lastEnd < end && line.charAt(lastEnd) != '|') lastEnd++;
+        starts[fields] = fieldStart;
+        ends[fields] = lastEnd;
+        fields++;
+
+        // Support both old (6 parts) and new (7+ parts) formats
+        if (fields < 6) {
+            throw new IllegalArgumentException("Invalid transaction file format");
+        }
+
+        try {
+            trim(line, starts, ends, 6);
+            int id = parseInt(line, starts[0], ends[0]);
+            double amount = parseDouble(line, starts[2], ends[2]);
+            String description = line.subSequence(starts[3], ends[3]).toString();
+            String category = line.subSequence(starts[4], ends[4]).toString();
+            LocalDate date = parseDate(line, starts[5], ends[5]);
+            int typeStart = starts[1];
+            int typeEnd = ends[1];
+
+            // Additional fields for enhanced format (not trimmed, same as before)
+            int extraStart = fields > 6 ? starts[6] : end;
+            int extraEnd = fields > 6 ? ends[6] : end;
+
+            if (matches(line, typeStart, typeEnd, "INCOME")) {
+                if (extraStart == extraEnd) {
+                    return new Income(id, amount, description, category, date);
+                }
+                return new Income(id, amount, description, category, date,
+                        line.subSequence(extraStart, extraEnd).toString());
+            }
+            if (matches(line, typeStart, typeEnd, "EXPENSE")) {
+                if (extraStart == extraEnd) {
+                    return new Expense(id, amount, description, category, date);
+                }
+                // Additional fields: "isEssential,paymentMethod"
+                int comma = extraStart;
+                while (comma < extraEnd && line.charAt(comma) != ',') comma++;
+                boolean isEssential = matches(line, extraStart, comma, "TRUE");
+                String paymentMethod = comma < extraEnd
+                        ? line.subSequence(comma + 1, extraEnd).toString() : "Unknown";
+                return new Expense(id, amount, description, category, date, isEssential, paymentMethod);
+            }
+            throw new IllegalArgumentException("Unknown transaction type: "
+                    + line.subSequence(typeStart, typeEnd));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Failed to parse transaction: "
+                    + line.subSequence(start, end), e);
+        }
+    }
+
+    // Case-insensitive comparison of line[start, end) with an upper-case keyword
+    private static boolean matches(CharSequence line, int start, int end, String keyword) {
+        if (end - start != keyword.length()) return false;
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toUpperCase(line.charAt(start + i)) != keyword.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    // Narrows the first count fields with the same whitespace rules as String.trim()
+    private static void trim(CharSequence line, int[] starts, int[] ends, int count) {
+        for (int f = 0; f < count; f++) {
+            int start = starts[f];
+            int end = ends[f];
+            while (start < end && line.charAt(start) <= ' ') start++;
+            while (end > start && line.charAt(end - 1) <= ' ') end--;
+            starts[f] = start;
+            ends[f] = end;
+        }
+    }
+
+    private static int parseInt(CharSequence line, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 10) {
+            return Integer.parseInt(line.subSequence(start, end).toString());
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return Integer.parseInt(line.subSequence(start, end).toString());
+            }
+            value = value * 10 + (c - '0');
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.parseInt(line.subSequence(start, end).toString());
+        }
+        return (int) value;
+    }
+
+    // Fast path for plain decimals ("1234.56"); exact because both operands fit a double
+    private static double parseDouble(CharSequence line, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (mantissa > 0 || c != '0') digits++;
+                mantissa = mantissa * 10 + (c - '0');
+                if (seenDot) fractionDigits++;
+                if (digits > 15) return Double.parseDouble(line.subSequence(start, end).toString());
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                return Double.parseDouble(line.subSequence(start, end).toString());
+            }
+        }
+        if (!seenDigit || fractionDigits >= POW10.length) {
+            return Double.parseDouble(line.subSequence(start, end).toString());
+        }
+        double value = mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    // yyyy-MM-dd straight into LocalDate.of; anything else goes through ISO_DATE
+    private static LocalDate parseDate(CharSequence line, int start, int end) {
+        if (end - start == 10 && line.charAt(start + 4) == '-' && line.charAt(start + 7) == '-') {
+            int year = digits(line, start, 4);
+            int month = digits(line, start + 5, 2);
+            int day = digits(line, start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(line.subSequence(start, end), Transaction.FILE_DATE);
+    }
+
+    private static int digits(CharSequence line, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,166 @@
+package com.financetracker.models;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+
+/**
+ * Writes transactions in file format straight into a reusable char buffer.
+ * Produces exactly the same text as the old String.format based
+ * toFileFormat(), but without a Formatter, a formatted date or a replaced
+ * description per record. Not thread-safe; use one instance per writer.
+ */
+public final class TransactionSerializer {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private char[] buffer;
+    private int length;
+    private ToIntFunction<String> categoryIds; // null = write category names
+
+    public TransactionSerializer() {
+        this(8192);
+    }
+
+    public TransactionSerializer(int initialCapacity) {
+        this.buffer = new char[Math.max(16, initialCapacity)];
+    }
+
+    public char[] buffer() { return buffer; }
+    public int length() { return length; }
+    public void reset() { length = 0; }
+
+    /**
+     * Writes the category as "#id" wherever categoryIds knows it (returns
+     * an id > 0), e.g. CategoryManager::getCategoryId; null writes names.
+     * With ids on, a name that itself starts with '#' gets a second '#'
+     * so it cannot be read back as a reference.
+     */
+    public void setCategoryIds(ToIntFunction<String> categoryIds) {
+        this.categoryIds = categoryIds;
+    }
+
+    /** Appends one record without a line separator */
+    public TransactionSerializer append(Transaction t) {
+        appendInt(t.getId());
+        append('|').append(t.getType()).append('|');
+        appendAmount(t.getAmount());
+        append('|');
+        // Replace any '|' in description to avoid delimiter conflicts
+        String description = t.getDescription();
+        ensureCapacity(description.length());
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            buffer[length++] = c == '|' ? '/' : c;
+        }
+        append('|');
+        int categoryId = categoryIds != null ? categoryIds.applyAsInt(t.getCategory()) : 0;
+        if (categoryId > 0) {
+            append('#').appendInt(categoryId);
+        } else {
+            if (categoryIds != null && t.getCategory().startsWith("#")) append('#');
+            append(t.getCategory());
+        }
+        append('|');
+        appendDate(t);
+        append('|');
+        t.appendAdditionalFields(this); // Let subclasses add their specific fields
+        return this;
+    }
+
+    public TransactionSerializer appendLine(Transaction t) {
+        return append(t).append(LINE_SEPARATOR);
+    }
+
+    /** Writes the buffered text and empties the buffer */
+    public void writeTo(Writer writer) throws IOException {
+        writer.write(buffer, 0, length);
+        length = 0;
+    }
+
+    public TransactionSerializer append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = c;
+        return this;
+    }
+
+    public TransactionSerializer append(String s) {
+        int n = s.length();
+        ensureCapacity(n);
+        s.getChars(0, n, buffer, length);
+        length += n;
+        return this;
+    }
+
+    public TransactionSerializer append(boolean b) {
+        return append(b ? "true" : "false");
+    }
+
+    private void appendInt(int value) {
+        if (value == Integer.MIN_VALUE) {
+            append(Integer.toString(value));
+            return;
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        appendDigits(value, 1);
+    }
+
+    // Writes value with at least minDigits digits (zero padded)
+    private void appendDigits(long value, int minDigits) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) digits++;
+        digits = Math.max(digits, minDigits);
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    // Same result as String.format(Locale.US, "%.2f", amount)
+    private void appendAmount(double amount) {
+        if (amount <= 0) {
+            append(String.format(Locale.US, "%.2f", amount));
+            return;
+        }
+        appendCents(Money.toCents(amount));
+    }
+
+    /** Appends a non-negative cents value as d.dd */
+    public TransactionSerializer appendCents(long cents) {
+        appendDigits(cents / 100, 1);
+        append('.');
+        appendDigits(cents % 100, 2);
+        return this;
+    }
+
+    // yyyy-MM-dd, same as ISO_DATE for four-digit years
+    private void appendDate(Transaction t) {
+        int year = t.getDate().getYear();
+        if (year < 0 || year > 9999) {
+            append(t.getDate().format(Transaction.FILE_DATE));
+            return;
+        }
+        appendDigits(year, 4);
+        append('-');
+        appendDigits(t.getDate().getMonthValue(), 2);
+        append('-');
+        appendDigits(t.getDate().getDayOfMonth(), 2);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+}
@@ -0,0 +1,304 @@
+package com.financetracker.models;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Column-oriented storage for a transaction history. Each field lives in
+ * its own primitive array (amount in cents, epoch day, id, type byte,
+ * dictionary codes for category/source/payment method and an essential
+ * bitset), so millions of records take a fraction of the heap of
+ * Transaction objects and aggregations are simple array scans.
+ * Transaction objects are only created as views on demand.
+ */
+public class TransactionStore {
+    public static final byte INCOME = 0;
+    public static final byte EXPENSE = 1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private long[] amountCents = new long[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private int[] categoryCodes = new int[INITIAL_CAPACITY];
+    private int[] sourceCodes = new int[INITIAL_CAPACITY];     // NO_CODE for expenses
+    private int[] paymentCodes = new int[INITIAL_CAPACITY];    // NO_CODE for incomes
+    private long[] essentialBits = new long[1];
+    private long descriptionChars; // for the memory estimate
+
+    private final StringDictionary categories = new StringDictionary();
+    private final StringDictionary sources = new StringDictionary();
+    private final StringDictionary paymentMethods = new StringDictionary();
+
+    /** Appends a transaction and returns its position in the store */
+    public int add(Transaction t) {
+        long cents = Money.toCents(t.getAmount());
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Amount must be at least 0.01");
+        }
+        ensureCapacity(size + 1);
+        int pos = size;
+        ids[pos] = t.getId();
+        amountCents[pos] = cents;
+        epochDays[pos] = (int) t.getDate().toEpochDay();
+        descriptions[pos] = t.getDescription();
+        descriptionChars += descriptions[pos].length();
+        categoryCodes[pos] = categories.encode(t.getCategory());
+        if (t instanceof Income) {
+            types[pos] = INCOME;
+            sourceCodes[pos] = sources.encode(((Income) t).getSource());
+            paymentCodes[pos] = StringDictionary.NO_CODE;
+        } else {
+            Expense e = (Expense) t;
+            types[pos] = EXPENSE;
+            sourceCodes[pos] = StringDictionary.NO_CODE;
+            paymentCodes[pos] = paymentMethods.encode(e.getPaymentMethod());
+            if (e.isEssential()) {
+                essentialBits[pos >>> 6] |= 1L << pos;
+            }
+        }
+        size++;
+        return pos;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // Column accessors
+    public int getId(int pos) { checkIndex(pos); return ids[pos]; }
+    public long getAmountCents(int pos) { checkIndex(pos); return amountCents[pos]; }
+    public int getEpochDay(int pos) { checkIndex(pos); return epochDays[pos]; }
+    public byte getType(int pos) { checkIndex(pos); return types[pos]; }
+    public String getDescription(int pos) { checkIndex(pos); return descriptions[pos]; }
+    public int getCategoryCode(int pos) { checkIndex(pos); return categoryCodes[pos]; }
+    public int getSourceCode(int pos) { checkIndex(pos); return sourceCodes[pos]; }
+    public int getPaymentCode(int pos) { checkIndex(pos); return paymentCodes[pos]; }
+
+    public boolean isEssential(int pos) {
+        checkIndex(pos);
+        return (essentialBits[pos >>> 6] & (1L << pos)) != 0;
+    }
+
+    public StringDictionary getCategories() { return categories; }
+    public StringDictionary getSources() { return sources; }
+    public StringDictionary getPaymentMethods() { return paymentMethods; }
+
+    /** Builds a Transaction object for the record at pos */
+    public Transaction get(int pos) {
+        checkIndex(pos);
+        double amount = Money.fromCents(amountCents[pos]);
+        LocalDate date = LocalDate.ofEpochDay(epochDays[pos]);
+        String category = categories.decode(categoryCodes[pos]);
+        if (types[pos] == INCOME) {
+            return new Income(ids[pos], amount, descriptions[pos], category, date,
+                    sources.decode(sourceCodes[pos]));
+        }
+        return new Expense(ids[pos], amount, descriptions[pos], category, date,
+                isEssential(pos), paymentMethods.decode(paymentCodes[pos]));
+    }
+
+    /**
+     * Appends the record at pos exactly as get(pos).toString() would show it
+     * (with a '.' decimal separator), straight from the columns: no
+     * Transaction, no Formatter, no intermediate strings.
+     */
+    public void appendDisplay(int pos, StringBuilder out) {
+        checkIndex(pos);
+        boolean income = types[pos] == INCOME;
+        out.append("ID: ").append(ids[pos]).append(" | ").append(income ? '+' : '-');
+        long cents = amountCents[pos];
+        out.append(cents / 100).append('.');
+        if (cents % 100 < 10) out.append('0');
+        out.append(cents % 100);
+        out.append(" | ").append(descriptions[pos]);
+        out.append(" | [").append(categories.decode(categoryCodes[pos])).append("] | ");
+        LocalDate date = LocalDate.ofEpochDay(epochDays[pos]);
+        appendTwoDigits(out, date.getDayOfMonth()).append('-');
+        appendTwoDigits(out, date.getMonthValue()).append('-');
+        int year = date.getYear();
+        if (year >= 0 && year < 1000) out.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        out.append(year);
+        if (income) {
+            out.append(" | Source: ").append(sources.decode(sourceCodes[pos]));
+        } else {
+            out.append(" | ").append(isEssential(pos) ? "Essential" : "Non-essential");
+            out.append(" | Paid: ").append(paymentMethods.decode(paymentCodes[pos]));
+        }
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        if (value < 10) out.append('0');
+        return out.append(value);
+    }
+
+    /** Read-only List view; elements are created on access */
+    public List<Transaction> asList() {
+        return new TransactionListView();
+    }
+
+    // Aggregations run straight over the primitive columns
+
+    public long sumCents(byte type) {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type) total += amountCents[i];
+        }
+        return total;
+    }
+
+    public int count(byte type) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Rough heap footprint in bytes: the column arrays at their current
+     * capacity, the description strings and the dictionaries. Cheap to call,
+     * meant for memory budgets rather than exact accounting.
+     */
+    public long estimateMemoryBytes() {
+        long columns = ids.length * 33L + essentialBits.length * 8L; // 4+8+4+1+4(ref)+4+4+4 bytes per slot
+        long strings = size * 40L + descriptionChars;                // String + byte[] headers, Latin-1 chars
+        long dictionaries = (categories.size() + sources.size() + paymentMethods.size()) * 96L;
+        return columns + strings + dictionaries;
+    }
+
+    public int maxId() {
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] > max) max = ids[i];
+        }
+        return max;
+    }
+
+    /** Trimmed copy sharing the description strings; used to write snapshots outside the account lock */
+    TransactionStore copy() {
+        TransactionStore copy = new TransactionStore();
+        copy.size = size;
+        copy.ids = Arrays.copyOf(ids, size);
+        copy.amountCents = Arrays.copyOf(amountCents, size);
+        copy.epochDays = Arrays.copyOf(epochDays, size);
+        copy.types = Arrays.copyOf(types, size);
+        copy.descriptions = Arrays.copyOf(descriptions, size);
+        copy.categoryCodes = Arrays.copyOf(categoryCodes, size);
+        copy.sourceCodes = Arrays.copyOf(sourceCodes, size);
+        copy.paymentCodes = Arrays.copyOf(paymentCodes, size);
+        copy.essentialBits = Arrays.copyOf(essentialBits, (size + 63) >>> 6);
+        if ((size & 63) != 0) {
+            copy.essentialBits[size >>> 6] &= (1L << size) - 1; // no stray bits past the end
+        }
+        copy.descriptionChars = descriptionChars;
+        copyDictionary(categories, copy.categories);
+        copyDictionary(sources, copy.sources);
+        copyDictionary(paymentMethods, copy.paymentMethods);
+        return copy;
+    }
+
+    void writeColumns(AccountSnapshot.Output out) throws IOException {
+        out.writeInt(size);
+        out.writeInts(ids, size);
+        out.writeLongs(amountCents, size);
+        out.writeInts(epochDays, size);
+        out.writeBytes(types, size);
+        out.writeInts(categoryCodes, size);
+        out.writeInts(sourceCodes, size);
+        out.writeInts(paymentCodes, size);
+        int words = (size + 63) >>> 6;
+        out.writeInt(words);
+        out.writeLongs(essentialBits, words);
+        for (int i = 0; i < size; i++) {
+            out.writeString(descriptions[i]);
+        }
+        writeDictionary(out, categories);
+        writeDictionary(out, sources);
+        writeDictionary(out, paymentMethods);
+    }
+
+    static TransactionStore readColumns(AccountSnapshot.Input in) throws IOException {
+        TransactionStore store = new TransactionStore();
+        int n = in.readLength();
+        // Columns are read at exactly n; ensureCapacity grows them on the next add
+        store.ids = in.readInts(n);
+        store.amountCents = in.readLongs(n);
+        store.epochDays = in.readInts(n);
+        store.types = in.readBytes(n);
+        store.categoryCodes = in.readInts(n);
+        store.sourceCodes = in.readInts(n);
+        store.paymentCodes = in.readInts(n);
+        int words = in.readLength();
+        if (words != (n + 63) >>> 6) throw new IOException("Corrupt essential flags");
+        store.essentialBits = in.readLongs(words);
+        store.descriptions = new String[n];
+        for (int i = 0; i < n; i++) {
+            store.descriptions[i] = in.readString();
+            store.descriptionChars += store.descriptions[i].length();
+        }
+        readDictionary(in, store.categories);
+        readDictionary(in, store.sources);
+        readDictionary(in, store.paymentMethods);
+        store.size = n;
+        return store;
+    }
+
+    private static void copyDictionary(StringDictionary from, StringDictionary to) {
+        for (int code = 0; code < from.size(); code++) {
+            to.encode(from.decode(code));
+        }
+    }
+
+    private static void writeDictionary(AccountSnapshot.Output out, StringDictionary dictionary) throws IOException {
+        out.writeInt(dictionary.size());
+        for (int code = 0; code < dictionary.size(); code++) {
+            out.writeString(dictionary.decode(code));
+        }
+    }
+
+    private static void readDictionary(AccountSnapshot.Input in, StringDictionary dictionary) throws IOException {
+        int n = in.readLength();
+        for (int code = 0; code < n; code++) {
+            if (dictionary.encode(in.readString()) != code) throw new IOException("Duplicate dictionary entry");
+        }
+    }
+
+    private void checkIndex(int pos) {
+        if (pos < 0 || pos >= size) {
+            throw new IndexOutOfBoundsException("Position " + pos + ", size " + size);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) return;
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        types = Arrays.copyOf(types, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        sourceCodes = Arrays.copyOf(sourceCodes, capacity);
+        paymentCodes = Arrays.copyOf(paymentCodes, capacity);
+        essentialBits = Arrays.copyOf(essentialBits, (capacity + 63) >>> 6);
+    }
+
+    private class TransactionListView extends AbstractList<Transaction> implements RandomAccess {
+        @Override
+        public Transaction get(int index) {
+            return TransactionStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}